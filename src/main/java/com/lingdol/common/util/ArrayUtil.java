@@ -46,6 +46,19 @@ public class ArrayUtil {
         return false;
     }
 
+    /**
+     * 复制为自动建立哈希索引的集合，需要反复判断是否包含时代替contains
+     */
+    @SafeVarargs
+    public static <T> IndexedList<T> indexed(T... array) {
+        IndexedList<T> r = new IndexedList<>();
+        if (array == null) return r;
+        for (T t : array) {
+            r.add(t);
+        }
+        return r;
+    }
+
     /**
      * 获取数组中第一个元素
      */
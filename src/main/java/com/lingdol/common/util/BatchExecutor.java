@@ -0,0 +1,417 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 分批并发执行器
+ * <p>
+ * 将集合按chunkSize分批，最多parallelism批同时执行，结果按批次顺序合并。
+ * 批次是读取一批提交一批：并发数已满时不再读取源数据，迭代器来源的内存占用与并发数成正比。
+ * <pre>
+ * List&lt;Order&gt; orders = BatchExecutor.of(this::queryOrders)
+ *         .chunkSize(200).parallelism(8).timeout(3, TimeUnit.SECONDS)
+ *         .execute(orderIds).getOrThrow();
+ * </pre>
+ * 配置方法非线程安全，配置完成后execute可以在多个线程中同时调用
+ *
+ * @param <T> 输入元素类型
+ * @param <R> 结果元素类型
+ */
+public class BatchExecutor<T, R> {
+
+    /**
+     * 出错时的处理方式
+     */
+    public enum ErrorMode {
+        /**
+         * 第一批失败后不再提交新批次，取消执行中的批次，并抛出BatchException
+         */
+        FAIL_FAST,
+        /**
+         * 所有批次都执行完，失败的批次记录在结果中
+         */
+        COLLECT
+    }
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /**
+     * FAIL_FAST时等待许可的间隔，每次间隔检查一次是否已经失败
+     */
+    private static final long ACQUIRE_POLL_MILLIS = 10;
+
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private static volatile Executor virtualThreadExecutor;
+
+    private final Function<? super List<T>, ? extends Collection<? extends R>> fn;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ErrorMode errorMode = ErrorMode.FAIL_FAST;
+    private long timeoutNanos;
+    private Executor executor = ForkJoinPool.commonPool();
+
+    private BatchExecutor(Function<? super List<T>, ? extends Collection<? extends R>> fn) {
+        this.fn = fn;
+    }
+
+    /**
+     * @param fn 每批的处理函数，入参是原集合的只读视图，返回null视为没有结果
+     */
+    public static <T, R> BatchExecutor<T, R> of(Function<? super List<T>, ? extends Collection<? extends R>> fn) {
+        if (fn == null) throw new IllegalArgumentException("fn must not be null");
+        return new BatchExecutor<>(fn);
+    }
+
+    /**
+     * 每批的元素个数，默认500
+     */
+    public BatchExecutor<T, R> chunkSize(int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 最多同时执行的批数，默认为CPU核数
+     */
+    public BatchExecutor<T, R> parallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public BatchExecutor<T, R> errorMode(ErrorMode errorMode) {
+        if (errorMode != null) this.errorMode = errorMode;
+        return this;
+    }
+
+    /**
+     * 每批的超时时间，从提交开始计算；超时的批次会被中断并按失败处理。小于等于0表示不超时
+     */
+    public BatchExecutor<T, R> timeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = timeout <= 0 || unit == null ? 0 : unit.toNanos(timeout);
+        return this;
+    }
+
+    /**
+     * 执行批次的线程池，默认ForkJoinPool.commonPool()
+     *
+     * @see #virtualThreads()
+     */
+    public BatchExecutor<T, R> executor(Executor executor) {
+        if (executor != null) this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 共享的虚拟线程执行器，需要运行在Java 21及以上；低版本返回ForkJoinPool.commonPool()
+     */
+    public static Executor virtualThreads() {
+        Executor e = virtualThreadExecutor;
+        if (e == null) {
+            synchronized (BatchExecutor.class) {
+                e = virtualThreadExecutor;
+                if (e == null) {
+                    try {
+                        e = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                    } catch (ReflectiveOperationException ex) {
+                        e = ForkJoinPool.commonPool();
+                    }
+                    virtualThreadExecutor = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    /**
+     * 分批执行集合
+     */
+    public BatchResult<R> execute(List<T> source) {
+        if (ListUtil.isEmpty(source)) return new BatchResult<>(new ArrayList<>(), new ArrayList<>());
+        return run(ListUtil.partition(source, chunkSize).iterator());
+    }
+
+    /**
+     * 分批执行迭代器，只在有空闲并发时才读取下一批
+     */
+    public BatchResult<R> execute(Iterator<T> source) {
+        if (source == null) return new BatchResult<>(new ArrayList<>(), new ArrayList<>());
+        return run(ListUtil.chunk(source, chunkSize));
+    }
+
+    private BatchResult<R> run(Iterator<List<T>> chunks) {
+        Semaphore permits = new Semaphore(parallelism);
+        CompletableFuture<Void> failure = new CompletableFuture<>();
+        List<ChunkTask> tasks = new ArrayList<>();
+        try {
+            while (chunks.hasNext()) {
+                if (!acquire(permits, failure)) break;
+                if (errorMode == ErrorMode.FAIL_FAST && failure.isDone()) {
+                    permits.release();
+                    break;
+                }
+                ChunkTask task = new ChunkTask(tasks.size(), chunks.next(), permits, failure);
+                tasks.add(task);
+                task.submit();
+            }
+            if (errorMode == ErrorMode.FAIL_FAST && awaitAllOrFailure(tasks, failure)) {
+                List<ChunkError> errors = failures(tasks);
+                cancel(tasks);
+                throw new BatchException(errors);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(tasks);
+            throw new BatchException(Collections.singletonList(new ChunkError(tasks.size(), e)));
+        }
+
+        List<R> results = new ArrayList<>();
+        List<ChunkError> errors = new ArrayList<>();
+        for (ChunkTask task : tasks) {
+            Throwable error;
+            try {
+                Collection<? extends R> r = task.result.get();
+                if (r != null) results.addAll(r);
+                continue;
+            } catch (ExecutionException e) {
+                error = e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = e;
+            }
+            errors.add(new ChunkError(task.index, error));
+            if (errorMode == ErrorMode.FAIL_FAST) {
+                cancel(tasks);
+                throw new BatchException(errors);
+            }
+        }
+        return new BatchResult<>(results, errors);
+    }
+
+    /**
+     * 等待并发许可；FAIL_FAST时同时等待失败，超时的批次在处理函数返回前一直占用许可，不能只等许可
+     *
+     * @return 是否拿到许可，没拿到时已经有批次失败
+     */
+    private boolean acquire(Semaphore permits, CompletableFuture<Void> failure) throws InterruptedException {
+        if (errorMode != ErrorMode.FAIL_FAST) {
+            permits.acquire();
+            return true;
+        }
+        while (!permits.tryAcquire(ACQUIRE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (failure.isDone()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 等待所有批次完成，或任意一批失败
+     *
+     * @return 是否有批次失败
+     */
+    private boolean awaitAllOrFailure(List<ChunkTask> tasks, CompletableFuture<Void> failure) throws InterruptedException {
+        CompletableFuture<?>[] all = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = tasks.get(i).result;
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(all), failure).get();
+        } catch (ExecutionException e) {
+            // 失败的批次由failure标记
+        }
+        return failure.isDone();
+    }
+
+    /**
+     * 已经失败的批次（不含被取消的）
+     */
+    private List<ChunkError> failures(List<ChunkTask> tasks) {
+        List<ChunkError> errors = new ArrayList<>();
+        for (ChunkTask task : tasks) {
+            if (!task.result.isCompletedExceptionally() || task.cancelled) continue;
+            try {
+                task.result.getNow(null);
+            } catch (CompletionException e) {
+                errors.add(new ChunkError(task.index, e.getCause()));
+            } catch (CancellationException e) {
+                errors.add(new ChunkError(task.index, e));
+            }
+        }
+        return errors;
+    }
+
+    private void cancel(List<ChunkTask> tasks) {
+        for (ChunkTask task : tasks) {
+            task.cancel(new CancellationException("batch cancelled"));
+        }
+    }
+
+    /**
+     * 单个批次：结果在执行完成、超时或取消时完成，三者中先发生的生效。
+     * 并发许可在处理函数真正返回后才归还，超时或取消后函数仍在执行时继续占用；没有开始执行的批次（被拒绝或提前取消）立即归还
+     */
+    private class ChunkTask {
+        final int index;
+        final CompletableFuture<Collection<? extends R>> result = new CompletableFuture<>();
+        private final FutureTask<Void> work;
+        private final Semaphore permits;
+        /**
+         * 执行体开始执行或确定不再执行时置为true，只有置位的一方归还许可
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timer;
+        volatile boolean cancelled;
+
+        ChunkTask(int index, List<T> chunk, Semaphore permits, CompletableFuture<Void> failure) {
+            this.index = index;
+            this.permits = permits;
+            this.work = new FutureTask<>(() -> {
+                if (!claimed.compareAndSet(false, true)) return;
+                try {
+                    result.complete(fn.apply(chunk));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            }, null);
+            result.whenComplete((r, e) -> {
+                if (e != null && !cancelled) failure.complete(null);
+                ScheduledFuture<?> t = timer;
+                if (t != null) t.cancel(false);
+            });
+        }
+
+        void submit() {
+            try {
+                executor.execute(work);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+                releaseIfNotStarted();
+                return;
+            }
+            if (timeoutNanos > 0 && !result.isDone()) {
+                timer = TIMER.schedule(this::timeout, timeoutNanos, TimeUnit.NANOSECONDS);
+                if (result.isDone()) timer.cancel(false);
+            }
+        }
+
+        void cancel(CancellationException reason) {
+            cancelled = true;
+            if (result.completeExceptionally(reason)) stop();
+        }
+
+        void timeout() {
+            if (result.completeExceptionally(new TimeoutException("chunk " + index + " timed out"))) stop();
+        }
+
+        private void stop() {
+            work.cancel(true);
+            releaseIfNotStarted();
+        }
+
+        /**
+         * 执行体还没有开始时，阻止它再执行并归还许可
+         */
+        private void releaseIfNotStarted() {
+            if (claimed.compareAndSet(false, true)) permits.release();
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "batch-executor-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * 分批执行的结果
+     */
+    public static class BatchResult<R> {
+        private final List<R> results;
+        private final List<ChunkError> errors;
+
+        BatchResult(List<R> results, List<ChunkError> errors) {
+            this.results = results;
+            this.errors = errors;
+        }
+
+        /**
+         * 成功批次的结果，按批次顺序合并
+         */
+        public List<R> getResults() {
+            return results;
+        }
+
+        /**
+         * 失败的批次，按批次顺序排列
+         */
+        public List<ChunkError> getErrors() {
+            return errors;
+        }
+
+        public boolean isSuccess() {
+            return errors.isEmpty();
+        }
+
+        /**
+         * 全部成功时返回合并结果，否则抛出BatchException
+         */
+        public List<R> getOrThrow() {
+            if (!isSuccess()) throw new BatchException(errors);
+            return results;
+        }
+    }
+
+    /**
+     * 失败的批次
+     */
+    public static class ChunkError {
+        private final int index;
+        private final Throwable cause;
+
+        ChunkError(int index, Throwable cause) {
+            this.index = index;
+            this.cause = cause;
+        }
+
+        /**
+         * 批次序号，从0开始
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public Throwable getCause() {
+            return cause;
+        }
+    }
+
+    /**
+     * 分批执行失败，cause为第一个失败批次的异常
+     */
+    public static class BatchException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<ChunkError> errors;
+
+        BatchException(List<ChunkError> errors) {
+            super("batch failed: " + errors.size() + " chunk(s), first at chunk " + errors.get(0).getIndex(),
+                    errors.get(0).getCause());
+            this.errors = errors;
+        }
+
+        public List<ChunkError> getErrors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.lingdol.common.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器：判断元素一定不存在或可能存在，用少量内存在查库、求交集之前排除大部分不存在的元素
+ * <p>
+ * 位数组保存在AtomicLongArray中，用CAS置位，多线程可以同时添加和查询，不加锁。
+ * 哈希使用HashUtil，与JVM无关，一个进程中序列化的过滤器可以在另一个进程中加载，
+ * wrap可以直接使用内存映射文件中的数据，不复制（只读）
+ * <pre>
+ * BloomFilter filter = BloomFilter.create(10_000_000, 0.01);
+ * filter.put("order-1");
+ * filter.mightContain("order-2"); // false时一定不存在
+ * </pre>
+ */
+public class BloomFilter {
+
+    private static final int SERIAL_COOKIE = 0x4C44424C;
+    private static final int HEADER_BYTES = 12;
+    private static final int MAX_HASH_COUNT = 30;
+    /**
+     * 序列化结果不能超过2GB
+     */
+    private static final int MAX_WORDS = (Integer.MAX_VALUE - HEADER_BYTES) / 8;
+
+    /**
+     * 可修改时的位数组
+     */
+    private final AtomicLongArray bits;
+    /**
+     * wrap得到的只读位数组，大端序
+     */
+    private final ByteBuffer wrapped;
+    private final long bitSize;
+    private final int hashCount;
+
+    private BloomFilter(AtomicLongArray bits, ByteBuffer wrapped, int words, int hashCount) {
+        this.bits = bits;
+        this.wrapped = wrapped;
+        this.bitSize = (long) words << 6;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * @param expectedInsertions 预计添加的元素个数
+     * @param fpp                期望的误判率，(0, 1)
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions < 1) throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        if (!(fpp > 0 && fpp < 1)) throw new IllegalArgumentException("fpp must be in (0, 1): " + fpp);
+
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (ln2 * ln2));
+        long words = (m + 63) >>> 6;
+        if (words > MAX_WORDS) throw new IllegalArgumentException("filter too large: " + m + " bits");
+        int k = (int) Math.round((double) (words << 6) / expectedInsertions * ln2);
+        k = Math.max(1, Math.min(MAX_HASH_COUNT, k));
+        return new BloomFilter(new AtomicLongArray((int) words), null, (int) words, k);
+    }
+
+    // ------------------------------------------------------------- 添加、查询
+
+    /**
+     * @return 有位被新置为1时返回true，即该元素之前一定不存在
+     */
+    public boolean put(CharSequence key) {
+        return putHash(HashUtil.hash64(key));
+    }
+
+    public boolean put(long key) {
+        return putHash(HashUtil.hash64(key));
+    }
+
+    public boolean put(byte[] key) {
+        return putHash(HashUtil.hash64(key));
+    }
+
+    public boolean mightContain(CharSequence key) {
+        return containsHash(HashUtil.hash64(key));
+    }
+
+    public boolean mightContain(long key) {
+        return containsHash(HashUtil.hash64(key));
+    }
+
+    public boolean mightContain(byte[] key) {
+        return containsHash(HashUtil.hash64(key));
+    }
+
+    /**
+     * 将other中的元素并入当前过滤器，两者的位数和哈希次数必须相同
+     */
+    public BloomFilter merge(BloomFilter other) {
+        checkWritable();
+        if (other.bitSize != bitSize || other.hashCount != hashCount) {
+            throw new IllegalArgumentException("incompatible BloomFilter: bits " + other.bitSize + "/" + bitSize
+                    + ", hashes " + other.hashCount + "/" + hashCount);
+        }
+        for (int i = 0, n = words(); i < n; i++) {
+            long w = other.word(i);
+            if (w != 0) setBits(i, w);
+        }
+        return this;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 按当前置位比例估算的误判率
+     */
+    public double expectedFpp() {
+        long set = 0;
+        for (int i = 0, n = words(); i < n; i++) {
+            set += Long.bitCount(word(i));
+        }
+        return Math.pow((double) set / bitSize, hashCount);
+    }
+
+    /**
+     * 是否为wrap得到的只读过滤器
+     */
+    public boolean isReadOnly() {
+        return bits == null;
+    }
+
+    // ------------------------------------------------------------- 序列化
+
+    public int serializedSizeInBytes() {
+        return HEADER_BYTES + words() * 8;
+    }
+
+    /**
+     * 按大端序写入buffer，从buffer当前位置开始
+     */
+    public void serialize(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            buffer.putInt(SERIAL_COOKIE);
+            buffer.putInt(hashCount);
+            buffer.putInt(words());
+            for (int i = 0, n = words(); i < n; i++) {
+                buffer.putLong(word(i));
+            }
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSizeInBytes());
+        serialize(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * 从buffer当前位置读取serialize写入的过滤器，复制数据，结果可以继续添加
+     */
+    public static BloomFilter deserialize(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            int hashCount = readHeader(buffer);
+            int words = readWords(buffer);
+            AtomicLongArray bits = new AtomicLongArray(words);
+            for (int i = 0; i < words; i++) {
+                bits.set(i, buffer.getLong());
+            }
+            return new BloomFilter(bits, null, words, hashCount);
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    /**
+     * 直接使用buffer中serialize写入的数据，不复制，适合内存映射文件；结果只读，put时抛出UnsupportedOperationException。
+     * buffer的位置移动到过滤器数据之后，之后不要修改这段数据
+     */
+    public static BloomFilter wrap(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            int hashCount = readHeader(buffer);
+            int words = readWords(buffer);
+            ByteBuffer data = buffer.slice();
+            data.limit(words * 8);
+            data.order(ByteOrder.BIG_ENDIAN);
+            buffer.position(buffer.position() + words * 8);
+            return new BloomFilter(null, data, words, hashCount);
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    private static int readHeader(ByteBuffer buffer) {
+        if (buffer.getInt() != SERIAL_COOKIE) throw new IllegalArgumentException("not a BloomFilter");
+        int hashCount = buffer.getInt();
+        if (hashCount < 1 || hashCount > MAX_HASH_COUNT) throw new IllegalArgumentException("bad hash count: " + hashCount);
+        return hashCount;
+    }
+
+    private static int readWords(ByteBuffer buffer) {
+        int words = buffer.getInt();
+        if (words < 1 || words > MAX_WORDS) throw new IllegalArgumentException("bad word count: " + words);
+        return words;
+    }
+
+    /**
+     * 双重哈希：第i个位置为h1 + i * h2
+     */
+    private boolean putHash(long h1) {
+        checkWritable();
+        long h2 = HashUtil.hash64(h1);
+        boolean changed = false;
+        long combined = h1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitSize;
+            changed |= setBits((int) (index >>> 6), 1L << index);
+            combined += h2;
+        }
+        return changed;
+    }
+
+    private boolean containsHash(long h1) {
+        long h2 = HashUtil.hash64(h1);
+        long combined = h1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitSize;
+            if ((word((int) (index >>> 6)) & (1L << index)) == 0) return false;
+            combined += h2;
+        }
+        return true;
+    }
+
+    /**
+     * CAS置位
+     *
+     * @return 有位被新置为1时返回true
+     */
+    private boolean setBits(int i, long mask) {
+        long old = bits.get(i);
+        while ((old & mask) != mask) {
+            if (bits.compareAndSet(i, old, old | mask)) return true;
+            old = bits.get(i);
+        }
+        return false;
+    }
+
+    private long word(int i) {
+        return bits != null ? bits.get(i) : wrapped.getLong(i << 3);
+    }
+
+    private int words() {
+        return (int) (bitSize >>> 6);
+    }
+
+    private void checkWritable() {
+        if (bits == null) throw new UnsupportedOperationException("BloomFilter is read-only");
+    }
+}
@@ -0,0 +1,147 @@
+package com.lingdol.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * 流式分批：元素到达时就按固定长度组成批次，内存中最多只保留少量批次
+ */
+final class Chunks {
+
+    /**
+     * 并行拆分时单次最多取出的元素个数（至少一批）
+     */
+    static final int MAX_SPLIT_ELEMENTS = 1 << 14;
+
+    private Chunks() {
+    }
+
+    /**
+     * 将元素逐个交给consumer，每满size个输出一批，结束时输出剩余部分，结果为输出的批数
+     */
+    static <T> Collector<T, ?, Long> collector(int size, Consumer<? super List<T>> consumer) {
+        return Collector.of(
+                () -> new Buffer<T>(size, consumer),
+                Buffer::add,
+                Buffer::combine,
+                Buffer::finish);
+    }
+
+    private static final class Buffer<T> {
+        private final int size;
+        private final Consumer<? super List<T>> consumer;
+        private List<T> current;
+        private long batches;
+
+        Buffer(int size, Consumer<? super List<T>> consumer) {
+            this.size = size;
+            this.consumer = consumer;
+        }
+
+        void add(T t) {
+            if (current == null) current = new ArrayList<>(Math.min(size, 1024));
+            current.add(t);
+            if (current.size() >= size) {
+                consumer.accept(current);
+                current = null;
+                batches++;
+            }
+        }
+
+        Buffer<T> combine(Buffer<T> other) {
+            batches += other.batches;
+            if (other.current != null) {
+                for (T t : other.current) {
+                    add(t);
+                }
+            }
+            return this;
+        }
+
+        Long finish() {
+            if (current != null && !current.isEmpty()) {
+                consumer.accept(current);
+                current = null;
+                batches++;
+            }
+            return batches;
+        }
+    }
+
+    /**
+     * 将元素流包装成批次流
+     * <p>
+     * 顺序遍历时每次只读取一批；并行拆分时从源头按整批取出一部分交给其他线程，
+     * 因此除最后一批外每批都是满的，且批次顺序与源顺序一致
+     */
+    static final class ChunkSpliterator<T> implements Spliterator<List<T>> {
+
+        private final Spliterator<T> source;
+        private final int size;
+        /**
+         * 下一次拆分时取出的批数，逐次增加
+         */
+        private int splitBatches = 1;
+
+        ChunkSpliterator(Spliterator<T> source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<T>> action) {
+            List<T> chunk = nextChunk();
+            if (chunk == null) return false;
+            action.accept(chunk);
+            return true;
+        }
+
+        private List<T> nextChunk() {
+            long est = source.estimateSize();
+            List<T> chunk = new ArrayList<>((int) Math.min(size, Math.min(est, 1024)));
+            while (chunk.size() < size && source.tryAdvance(chunk::add)) {
+                // 读满一批为止
+            }
+            return chunk.isEmpty() ? null : chunk;
+        }
+
+        @Override
+        public Spliterator<List<T>> trySplit() {
+            long est = source.estimateSize();
+            if (est <= size) return null;
+
+            int limit = Math.max(1, MAX_SPLIT_ELEMENTS / size);
+            int n = Math.min(splitBatches, limit);
+            if (est != Long.MAX_VALUE) n = (int) Math.min(n, est / size / 2 + 1);
+
+            Object[] chunks = new Object[n];
+            int i = 0;
+            List<T> chunk;
+            while (i < n && (chunk = nextChunk()) != null) {
+                chunks[i++] = chunk;
+            }
+            if (i == 0) return null;
+
+            splitBatches = Math.min(splitBatches + 1, limit);
+            return Spliterators.spliterator(chunks, 0, i, characteristics() | Spliterator.SIZED | Spliterator.SUBSIZED);
+        }
+
+        @Override
+        public long estimateSize() {
+            long est = source.estimateSize();
+            if (est == Long.MAX_VALUE) return est;
+            return est / size + (est % size == 0 ? 0 : 1);
+        }
+
+        @Override
+        public int characteristics() {
+            int c = Spliterator.NONNULL | (source.characteristics() & Spliterator.ORDERED);
+            if (source.hasCharacteristics(Spliterator.SIZED)) c |= Spliterator.SIZED | Spliterator.SUBSIZED;
+            return c;
+        }
+    }
+}
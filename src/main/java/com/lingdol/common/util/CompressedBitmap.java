@@ -0,0 +1,1022 @@
+package com.lingdol.common.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 压缩位图，保存32位整数集合（按无符号处理）
+ * <p>
+ * 按高16位分桶，每个桶根据数据分布选择容器：
+ * 元素不超过4096个时用有序char数组，超过时用1024个long的位图，连续区间多时（runOptimize后）用区间容器。
+ * 稠密数据每个元素约占1bit，稀疏数据约占2字节，交并差在位图容器上按long字运算。
+ * <p>
+ * 实例方法and/or/andNot原地修改当前位图，静态方法返回新位图；非线程安全
+ */
+public class CompressedBitmap {
+
+    private static final int SERIAL_COOKIE = 0x4C44424D;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public CompressedBitmap() {
+        this(4);
+    }
+
+    private CompressedBitmap(int capacity) {
+        keys = new char[capacity];
+        containers = new Container[capacity];
+    }
+
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap r = new CompressedBitmap();
+        if (values != null) {
+            for (int v : values) {
+                r.add(v);
+            }
+        }
+        return r;
+    }
+
+    // ------------------------------------------------------------- 单个元素
+
+    public void add(int x) {
+        char hb = highBits(x);
+        int i = indexOf(hb);
+        if (i >= 0) {
+            containers[i] = containers[i].add(lowBits(x));
+        } else {
+            insertAt(-i - 1, hb, new ArrayContainer().add(lowBits(x)));
+        }
+    }
+
+    public void remove(int x) {
+        int i = indexOf(highBits(x));
+        if (i < 0) return;
+        Container c = containers[i].remove(lowBits(x));
+        if (c.cardinality() == 0) {
+            removeAt(i);
+        } else {
+            containers[i] = c;
+        }
+    }
+
+    public boolean contains(int x) {
+        int i = indexOf(highBits(x));
+        return i >= 0 && containers[i].contains(lowBits(x));
+    }
+
+    public long getCardinality() {
+        long card = 0;
+        for (int i = 0; i < size; i++) {
+            card += containers[i].cardinality();
+        }
+        return card;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 按无符号升序遍历所有元素
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    public int[] toArray() {
+        int[] r = new int[(int) getCardinality()];
+        int[] pos = {0};
+        forEach(v -> r[pos[0]++] = v);
+        return r;
+    }
+
+    /**
+     * 将连续区间多的容器转换为区间容器以节省空间
+     */
+    public CompressedBitmap runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+        return this;
+    }
+
+    // ------------------------------------------------------------- 原地运算
+
+    /**
+     * 原地取交集
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        int n = 0;
+        int i = 0, j = 0;
+        while (i < size && j < other.size) {
+            int c = keys[i] - other.keys[j];
+            if (c < 0) {
+                i++;
+            } else if (c > 0) {
+                j++;
+            } else {
+                Container r = containers[i].iand(other.containers[j]);
+                if (r.cardinality() > 0) {
+                    keys[n] = keys[i];
+                    containers[n++] = r;
+                }
+                i++;
+                j++;
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+        return this;
+    }
+
+    /**
+     * 原地取并集
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap r = or(this, other);
+        keys = r.keys;
+        containers = r.containers;
+        size = r.size;
+        return this;
+    }
+
+    /**
+     * 原地去掉other中存在的元素
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) j++;
+            Container r = containers[i];
+            if (j < other.size && other.keys[j] == keys[i]) r = r.iandNot(other.containers[j]);
+            if (r.cardinality() > 0) {
+                keys[n] = keys[i];
+                containers[n++] = r;
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+        return this;
+    }
+
+    // ------------------------------------------------------------- 静态运算
+
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap r = new CompressedBitmap(Math.max(1, Math.min(a.size, b.size)));
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            int c = a.keys[i] - b.keys[j];
+            if (c < 0) {
+                i++;
+            } else if (c > 0) {
+                j++;
+            } else {
+                Container con = a.containers[i].and(b.containers[j]);
+                if (con.cardinality() > 0) r.append(a.keys[i], con);
+                i++;
+                j++;
+            }
+        }
+        return r;
+    }
+
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap r = new CompressedBitmap(Math.max(1, a.size + b.size));
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size) {
+            int c = i >= a.size ? 1 : j >= b.size ? -1 : a.keys[i] - b.keys[j];
+            if (c < 0) {
+                r.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (c > 0) {
+                r.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                r.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return r;
+    }
+
+    public static CompressedBitmap andNot(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap r = new CompressedBitmap(Math.max(1, a.size));
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) j++;
+            Container con = j < b.size && b.keys[j] == a.keys[i]
+                    ? a.containers[i].andNot(b.containers[j])
+                    : a.containers[i].copy();
+            if (con.cardinality() > 0) r.append(a.keys[i], con);
+        }
+        return r;
+    }
+
+    /**
+     * 两个位图是否有共同元素，不生成交集
+     */
+    public static boolean intersects(CompressedBitmap a, CompressedBitmap b) {
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            int c = a.keys[i] - b.keys[j];
+            if (c < 0) {
+                i++;
+            } else if (c > 0) {
+                j++;
+            } else {
+                if (a.containers[i].intersects(b.containers[j])) return true;
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 交集的元素个数，不生成交集
+     */
+    public static long andCardinality(CompressedBitmap a, CompressedBitmap b) {
+        long card = 0;
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            int c = a.keys[i] - b.keys[j];
+            if (c < 0) {
+                i++;
+            } else if (c > 0) {
+                j++;
+            } else {
+                card += a.containers[i].and(b.containers[j]).cardinality();
+                i++;
+                j++;
+            }
+        }
+        return card;
+    }
+
+    // ------------------------------------------------------------- 序列化
+
+    /**
+     * 序列化后的字节数
+     */
+    public int serializedSizeInBytes() {
+        int bytes = 8;
+        for (int i = 0; i < size; i++) {
+            bytes += 5 + containers[i].serializedSizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 按大端序写入buffer，从buffer当前位置开始
+     */
+    public void serialize(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            buffer.putInt(SERIAL_COOKIE);
+            buffer.putInt(size);
+            for (int i = 0; i < size; i++) {
+                Container c = containers[i];
+                buffer.putChar(keys[i]);
+                buffer.put(c.type());
+                buffer.putChar((char) (c.serializedCount() - 1));
+                c.writeTo(buffer);
+            }
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSizeInBytes());
+        serialize(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * 从buffer当前位置读取serialize写入的位图
+     */
+    public static CompressedBitmap deserialize(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.getInt() != SERIAL_COOKIE) throw new IllegalArgumentException("not a CompressedBitmap");
+            int n = buffer.getInt();
+            CompressedBitmap r = new CompressedBitmap(Math.max(1, n));
+            for (int i = 0; i < n; i++) {
+                char key = buffer.getChar();
+                byte type = buffer.get();
+                int count = buffer.getChar() + 1;
+                r.append(key, Container.readFrom(type, count, buffer));
+            }
+            return r;
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    private static char highBits(int x) {
+        return (char) (x >>> 16);
+    }
+
+    private static char lowBits(int x) {
+        return (char) x;
+    }
+
+    private int indexOf(char key) {
+        if (size > 0 && keys[size - 1] == key) return size - 1;
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char k = keys[mid];
+            if (k < key) low = mid + 1;
+            else if (k > key) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int n = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, n);
+            containers = Arrays.copyOf(containers, n);
+        }
+    }
+
+    private void append(char key, Container c) {
+        ensureCapacity(size + 1);
+        keys[size] = key;
+        containers[size++] = c;
+    }
+
+    private void insertAt(int i, char key, Container c) {
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = c;
+        size++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompressedBitmap)) return false;
+        CompressedBitmap other = (CompressedBitmap) o;
+        if (size != other.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != other.keys[i] || !containers[i].sameElements(other.containers[i])) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int[] h = {1};
+        forEach(v -> h[0] = 31 * h[0] + v);
+        return h[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach(v -> {
+            if (sb.length() > 1) sb.append(',');
+            sb.append(Integer.toUnsignedString(v));
+        });
+        return sb.append('}').toString();
+    }
+
+    // ============================================================= 容器
+
+    /**
+     * 低16位的容器，add/remove/运算可能返回另一种类型的容器
+     */
+    abstract static class Container {
+
+        static final int ARRAY_MAX = 4096;
+
+        static final byte ARRAY = 0;
+        static final byte BITMAP = 1;
+        static final byte RUN = 2;
+
+        abstract Container add(char x);
+
+        abstract Container remove(char x);
+
+        abstract boolean contains(char x);
+
+        abstract int cardinality();
+
+        abstract void forEach(int high, IntConsumer consumer);
+
+        abstract Container copy();
+
+        abstract byte type();
+
+        /**
+         * 序列化时记录的数量：数组容器为元素个数，位图容器为1024，区间容器为区间个数
+         */
+        abstract int serializedCount();
+
+        abstract int serializedSizeInBytes();
+
+        abstract void writeTo(ByteBuffer buffer);
+
+        /**
+         * 转换为数组或位图容器，区间容器参与运算前先转换
+         */
+        Container plain() {
+            return this;
+        }
+
+        Container runOptimize() {
+            int runs = numberOfRuns();
+            int runBytes = 2 + 4 * runs;
+            if (runBytes < serializedSizeInBytes()) return RunContainer.from(this, runs);
+            return this;
+        }
+
+        abstract int numberOfRuns();
+
+        Container and(Container o) {
+            Container a = plain(), b = o.plain();
+            if (a instanceof ArrayContainer) {
+                return b instanceof ArrayContainer
+                        ? ((ArrayContainer) a).and((ArrayContainer) b)
+                        : ((ArrayContainer) a).and((BitmapContainer) b);
+            }
+            return b instanceof ArrayContainer
+                    ? ((ArrayContainer) b).and((BitmapContainer) a)
+                    : ((BitmapContainer) a).and((BitmapContainer) b, false);
+        }
+
+        Container iand(Container o) {
+            return and(o);
+        }
+
+        Container or(Container o) {
+            Container a = plain(), b = o.plain();
+            if (a instanceof ArrayContainer) {
+                return b instanceof ArrayContainer
+                        ? ((ArrayContainer) a).or((ArrayContainer) b)
+                        : ((BitmapContainer) b.copy()).orInPlace((ArrayContainer) a);
+            }
+            return b instanceof ArrayContainer
+                    ? ((BitmapContainer) a.copy()).orInPlace((ArrayContainer) b)
+                    : ((BitmapContainer) a.copy()).orInPlace((BitmapContainer) b);
+        }
+
+        Container andNot(Container o) {
+            Container a = plain(), b = o.plain();
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).andNot(b);
+            BitmapContainer r = (BitmapContainer) (a == this ? a.copy() : a);
+            return b instanceof ArrayContainer
+                    ? r.andNotInPlace((ArrayContainer) b)
+                    : r.andNotInPlace((BitmapContainer) b);
+        }
+
+        Container iandNot(Container o) {
+            return andNot(o);
+        }
+
+        boolean intersects(Container o) {
+            Container a = plain(), b = o.plain();
+            if (a instanceof ArrayContainer) return ((ArrayContainer) a).intersects(b);
+            if (b instanceof ArrayContainer) return ((ArrayContainer) b).intersects(a);
+            return ((BitmapContainer) a).intersects((BitmapContainer) b);
+        }
+
+        boolean sameElements(Container o) {
+            if (cardinality() != o.cardinality()) return false;
+            return and(o).cardinality() == cardinality();
+        }
+
+        static Container readFrom(byte type, int count, ByteBuffer buffer) {
+            switch (type) {
+                case ARRAY:
+                    ArrayContainer a = new ArrayContainer(count);
+                    for (int i = 0; i < count; i++) {
+                        a.content[i] = buffer.getChar();
+                    }
+                    a.cardinality = count;
+                    return a;
+                case BITMAP:
+                    BitmapContainer b = new BitmapContainer();
+                    for (int i = 0; i < b.words.length; i++) {
+                        b.words[i] = buffer.getLong();
+                    }
+                    b.computeCardinality();
+                    return b;
+                case RUN:
+                    char[] runs = new char[count * 2];
+                    for (int i = 0; i < runs.length; i++) {
+                        runs[i] = buffer.getChar();
+                    }
+                    return new RunContainer(runs, count);
+                default:
+                    throw new IllegalArgumentException("unknown container type: " + type);
+            }
+        }
+    }
+
+    /**
+     * 有序char数组容器
+     */
+    static final class ArrayContainer extends Container {
+        char[] content;
+        int cardinality;
+
+        ArrayContainer() {
+            this(4);
+        }
+
+        ArrayContainer(int capacity) {
+            content = new char[Math.max(1, capacity)];
+        }
+
+        private int search(char x) {
+            return Arrays.binarySearch(content, 0, cardinality, x);
+        }
+
+        @Override
+        Container add(char x) {
+            if (cardinality > 0 && content[cardinality - 1] < x) {
+                if (cardinality >= ARRAY_MAX) return toBitmap().add(x);
+                if (cardinality == content.length) grow();
+                content[cardinality++] = x;
+                return this;
+            }
+            int i = search(x);
+            if (i >= 0) return this;
+            if (cardinality >= ARRAY_MAX) return toBitmap().add(x);
+            if (cardinality == content.length) grow();
+            i = -i - 1;
+            System.arraycopy(content, i, content, i + 1, cardinality - i);
+            content[i] = x;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            int i = search(x);
+            if (i >= 0) {
+                System.arraycopy(content, i + 1, content, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return search(x) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(high | content[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer c = new ArrayContainer(cardinality);
+            System.arraycopy(content, 0, c.content, 0, cardinality);
+            c.cardinality = cardinality;
+            return c;
+        }
+
+        @Override
+        byte type() {
+            return ARRAY;
+        }
+
+        @Override
+        int serializedCount() {
+            return cardinality;
+        }
+
+        @Override
+        int serializedSizeInBytes() {
+            return cardinality * 2;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            for (int i = 0; i < cardinality; i++) {
+                buffer.putChar(content[i]);
+            }
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (i == 0 || content[i] != content[i - 1] + 1) runs++;
+            }
+            return runs;
+        }
+
+        private void grow() {
+            content = Arrays.copyOf(content, Math.min(ARRAY_MAX, content.length * 2));
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer b = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                char x = content[i];
+                b.words[x >>> 6] |= 1L << x;
+            }
+            b.cardinality = cardinality;
+            return b;
+        }
+
+        ArrayContainer and(ArrayContainer o) {
+            ArrayContainer r = new ArrayContainer(Math.min(cardinality, o.cardinality));
+            int i = 0, j = 0;
+            while (i < cardinality && j < o.cardinality) {
+                char a = content[i], b = o.content[j];
+                if (a < b) {
+                    i++;
+                } else if (a > b) {
+                    j++;
+                } else {
+                    r.content[r.cardinality++] = a;
+                    i++;
+                    j++;
+                }
+            }
+            return r;
+        }
+
+        ArrayContainer and(BitmapContainer o) {
+            ArrayContainer r = new ArrayContainer(cardinality);
+            for (int i = 0; i < cardinality; i++) {
+                if (o.contains(content[i])) r.content[r.cardinality++] = content[i];
+            }
+            return r;
+        }
+
+        Container or(ArrayContainer o) {
+            if (cardinality + o.cardinality > ARRAY_MAX) {
+                return toBitmap().orInPlace(o);
+            }
+            ArrayContainer r = new ArrayContainer(cardinality + o.cardinality);
+            int i = 0, j = 0;
+            while (i < cardinality || j < o.cardinality) {
+                if (j >= o.cardinality || (i < cardinality && content[i] < o.content[j])) {
+                    r.content[r.cardinality++] = content[i++];
+                } else if (i >= cardinality || o.content[j] < content[i]) {
+                    r.content[r.cardinality++] = o.content[j++];
+                } else {
+                    r.content[r.cardinality++] = content[i++];
+                    j++;
+                }
+            }
+            return r;
+        }
+
+        ArrayContainer andNot(Container o) {
+            ArrayContainer r = new ArrayContainer(cardinality);
+            for (int i = 0; i < cardinality; i++) {
+                if (!o.contains(content[i])) r.content[r.cardinality++] = content[i];
+            }
+            return r;
+        }
+
+        boolean intersects(Container o) {
+            for (int i = 0; i < cardinality; i++) {
+                if (o.contains(content[i])) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 65536位的位图容器
+     */
+    static final class BitmapContainer extends Container {
+        final long[] words = new long[1024];
+        int cardinality;
+
+        @Override
+        Container add(char x) {
+            long before = words[x >>> 6];
+            long after = before | (1L << x);
+            words[x >>> 6] = after;
+            if (before != after) cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char x) {
+            long before = words[x >>> 6];
+            long after = before & ~(1L << x);
+            words[x >>> 6] = after;
+            if (before != after && --cardinality <= ARRAY_MAX) return toArray();
+            return this;
+        }
+
+        @Override
+        boolean contains(char x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    consumer.accept(high | (i << 6) | Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer c = new BitmapContainer();
+            System.arraycopy(words, 0, c.words, 0, words.length);
+            c.cardinality = cardinality;
+            return c;
+        }
+
+        @Override
+        byte type() {
+            return BITMAP;
+        }
+
+        @Override
+        int serializedCount() {
+            return words.length;
+        }
+
+        @Override
+        int serializedSizeInBytes() {
+            return words.length * 8;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            for (long w : words) {
+                buffer.putLong(w);
+            }
+        }
+
+        @Override
+        int numberOfRuns() {
+            int runs = 0;
+            long prevHigh = 0;
+            for (long w : words) {
+                runs += Long.bitCount(w & ~((w << 1) | prevHigh));
+                prevHigh = w >>> 63;
+            }
+            return runs;
+        }
+
+        void computeCardinality() {
+            int card = 0;
+            for (long w : words) {
+                card += Long.bitCount(w);
+            }
+            cardinality = card;
+        }
+
+        ArrayContainer toArray() {
+            ArrayContainer a = new ArrayContainer(cardinality);
+            forEach(0, v -> a.content[a.cardinality++] = (char) v);
+            return a;
+        }
+
+        Container and(BitmapContainer o, boolean inPlace) {
+            BitmapContainer r = inPlace ? this : new BitmapContainer();
+            int card = 0;
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i] & o.words[i];
+                r.words[i] = w;
+                card += Long.bitCount(w);
+            }
+            r.cardinality = card;
+            return card <= ARRAY_MAX ? r.toArray() : r;
+        }
+
+        @Override
+        Container iand(Container o) {
+            Container b = o.plain();
+            if (b instanceof BitmapContainer) return and((BitmapContainer) b, true);
+            return ((ArrayContainer) b).and(this);
+        }
+
+        BitmapContainer orInPlace(ArrayContainer o) {
+            for (int i = 0; i < o.cardinality; i++) {
+                add(o.content[i]);
+            }
+            return this;
+        }
+
+        BitmapContainer orInPlace(BitmapContainer o) {
+            int card = 0;
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i] | o.words[i];
+                words[i] = w;
+                card += Long.bitCount(w);
+            }
+            cardinality = card;
+            return this;
+        }
+
+        Container andNotInPlace(ArrayContainer o) {
+            for (int i = 0; i < o.cardinality; i++) {
+                char x = o.content[i];
+                long before = words[x >>> 6];
+                long after = before & ~(1L << x);
+                words[x >>> 6] = after;
+                if (before != after) cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        Container andNotInPlace(BitmapContainer o) {
+            int card = 0;
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i] & ~o.words[i];
+                words[i] = w;
+                card += Long.bitCount(w);
+            }
+            cardinality = card;
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        Container iandNot(Container o) {
+            Container b = o.plain();
+            return b instanceof ArrayContainer
+                    ? andNotInPlace((ArrayContainer) b)
+                    : andNotInPlace((BitmapContainer) b);
+        }
+
+        boolean intersects(BitmapContainer o) {
+            for (int i = 0; i < words.length; i++) {
+                if ((words[i] & o.words[i]) != 0) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 区间容器，runs中依次保存每个区间的起点和长度减一
+     */
+    static final class RunContainer extends Container {
+        final char[] runs;
+        final int nRuns;
+        private final int cardinality;
+
+        RunContainer(char[] runs, int nRuns) {
+            this.runs = runs;
+            this.nRuns = nRuns;
+            int card = 0;
+            for (int i = 0; i < nRuns; i++) {
+                card += runs[2 * i + 1] + 1;
+            }
+            this.cardinality = card;
+        }
+
+        static RunContainer from(Container c, int nRuns) {
+            char[] runs = new char[nRuns * 2];
+            int[] state = {-1, -2};
+            c.forEach(0, v -> {
+                if (v == state[1] + 1) {
+                    runs[2 * state[0] + 1]++;
+                } else {
+                    state[0]++;
+                    runs[2 * state[0]] = (char) v;
+                }
+                state[1] = v;
+            });
+            return new RunContainer(runs, nRuns);
+        }
+
+        @Override
+        Container plain() {
+            Container c = cardinality <= ARRAY_MAX ? new ArrayContainer(cardinality) : new BitmapContainer();
+            for (int i = 0; i < nRuns; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int v = start; v <= end; v++) {
+                    c = c.add((char) v);
+                }
+            }
+            return c;
+        }
+
+        @Override
+        Container add(char x) {
+            return contains(x) ? this : plain().add(x);
+        }
+
+        @Override
+        Container remove(char x) {
+            return contains(x) ? plain().remove(x) : this;
+        }
+
+        @Override
+        boolean contains(char x) {
+            int low = 0, high = nRuns - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int start = runs[2 * mid];
+                if (x < start) {
+                    high = mid - 1;
+                } else if (x > start + runs[2 * mid + 1]) {
+                    low = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < nRuns; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1];
+                for (int v = start; v <= end; v++) {
+                    consumer.accept(high | v);
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return this;
+        }
+
+        @Override
+        Container runOptimize() {
+            return this;
+        }
+
+        @Override
+        byte type() {
+            return RUN;
+        }
+
+        @Override
+        int serializedCount() {
+            return nRuns;
+        }
+
+        @Override
+        int serializedSizeInBytes() {
+            return nRuns * 4;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            for (int i = 0; i < nRuns * 2; i++) {
+                buffer.putChar(runs[i]);
+            }
+        }
+
+        @Override
+        int numberOfRuns() {
+            return nRuns;
+        }
+    }
+}
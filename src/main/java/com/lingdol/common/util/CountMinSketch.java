@@ -0,0 +1,266 @@
+package com.lingdol.common.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-Min Sketch：用固定的内存估算每个key出现的次数，估计值不会小于真实值
+ * <p>
+ * 使用保守更新：只增加等于当前最小值的计数器，比普通更新的高估更少。
+ * 计数器保存在AtomicLongArray中，多线程可以同时添加：相同哈希的添加按分段锁串行（保守更新先读后写，
+ * 并发的同一个key不串行会丢次数），不同key只用CAS抬高计数器，互不阻塞。
+ * 同一个key总是落在同一把锁上，最热的key被多线程同时添加时会在这把锁上排队；
+ * 这种情况可以在线程内先累计次数，再按批调用add(key, count)。
+ * 哈希使用HashUtil，与JVM无关，不同节点的结果可以序列化后合并
+ * <pre>
+ * CountMinSketch cms = CountMinSketch.create(0.0001, 0.001);
+ * cms.add("hot-key", 1);
+ * cms.estimate("hot-key");
+ * </pre>
+ */
+public class CountMinSketch {
+
+    private static final int SERIAL_COOKIE = 0x4C44434D;
+    private static final int MAX_CELLS = 1 << 28;
+    private static final int LOCK_STRIPES = 64;
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+    private final LongAdder total = new LongAdder();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicLongArray(depth * width);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 按误差创建：估计值超过真实值epsilon * 总次数的概率不超过delta
+     *
+     * @param epsilon 相对总次数的误差，(0, 1)
+     * @param delta   超出误差的概率，(0, 1)
+     */
+    public static CountMinSketch create(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1)) throw new IllegalArgumentException("epsilon must be in (0, 1): " + epsilon);
+        if (!(delta > 0 && delta < 1)) throw new IllegalArgumentException("delta must be in (0, 1): " + delta);
+        int width = (int) Math.min(MAX_CELLS, Math.ceil(Math.E / epsilon));
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        return create(depth, width);
+    }
+
+    /**
+     * @param depth 哈希函数个数
+     * @param width 每行的计数器个数，向上取整为2的幂
+     */
+    public static CountMinSketch create(int depth, int width) {
+        if (depth < 1 || width < 1) throw new IllegalArgumentException("depth and width must be positive: " + depth + "x" + width);
+        int w = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        if (width == 1) w = 1;
+        if ((long) depth * w > MAX_CELLS) throw new IllegalArgumentException("sketch too large: " + depth + "x" + w);
+        return new CountMinSketch(depth, w);
+    }
+
+    // ------------------------------------------------------------- 添加、估算
+
+    /**
+     * @return 添加后的估计次数
+     */
+    public long add(CharSequence key, long count) {
+        return addHash(HashUtil.hash64(key), count);
+    }
+
+    public long add(long key, long count) {
+        return addHash(HashUtil.hash64(key), count);
+    }
+
+    public long add(byte[] key, long count) {
+        return addHash(HashUtil.hash64(key), count);
+    }
+
+    public long estimate(CharSequence key) {
+        return estimateHash(HashUtil.hash64(key));
+    }
+
+    public long estimate(long key) {
+        return estimateHash(HashUtil.hash64(key));
+    }
+
+    public long estimate(byte[] key) {
+        return estimateHash(HashUtil.hash64(key));
+    }
+
+    /**
+     * 按key的64位哈希添加，哈希需要分布均匀，例如HashUtil.hash64的结果
+     *
+     * @param count 次数，不能为负数
+     * @return 添加后的估计次数
+     */
+    public long addHash(long hash, long count) {
+        if (count < 0) throw new IllegalArgumentException("count must not be negative: " + count);
+        total.add(count);
+        long h2 = HashUtil.hash64(hash) | 1;
+        synchronized (locks[(int) (hash >>> 58)]) {
+            long min = Long.MAX_VALUE;
+            long combined = hash;
+            for (int i = 0; i < depth; i++, combined += h2) {
+                min = Math.min(min, counters.get(cell(i, combined)));
+            }
+            long target = min + count;
+            combined = hash;
+            for (int i = 0; i < depth; i++, combined += h2) {
+                raise(cell(i, combined), target);
+            }
+            return target;
+        }
+    }
+
+    public long estimateHash(long hash) {
+        long h2 = HashUtil.hash64(hash) | 1;
+        long min = Long.MAX_VALUE;
+        long combined = hash;
+        for (int i = 0; i < depth; i++, combined += h2) {
+            min = Math.min(min, counters.get(cell(i, combined)));
+        }
+        return min;
+    }
+
+    /**
+     * 添加的总次数
+     */
+    public long totalCount() {
+        return total.sum();
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /**
+     * 将other的计数加到当前计数器，两者的大小必须相同
+     */
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("incompatible CountMinSketch: " + other.depth + "x" + other.width + "/" + depth + "x" + width);
+        }
+        for (int i = 0, n = counters.length(); i < n; i++) {
+            long v = other.counters.get(i);
+            if (v != 0) counters.addAndGet(i, v);
+        }
+        total.add(other.totalCount());
+        return this;
+    }
+
+    /**
+     * 复制当前计数，复制期间的并发添加可能只有部分被复制
+     */
+    public CountMinSketch snapshot() {
+        CountMinSketch r = new CountMinSketch(depth, width);
+        for (int i = 0, n = counters.length(); i < n; i++) {
+            r.counters.set(i, counters.get(i));
+        }
+        r.total.add(totalCount());
+        return r;
+    }
+
+    /**
+     * 所有计数乘以factor并向下取整，用于按时间衰减旧数据
+     *
+     * @param factor [0, 1]
+     */
+    public void decay(double factor) {
+        if (!(factor >= 0 && factor <= 1)) throw new IllegalArgumentException("factor must be in [0, 1]: " + factor);
+        for (int i = 0, n = counters.length(); i < n; i++) {
+            long v = counters.get(i);
+            while (v != 0 && !counters.compareAndSet(i, v, (long) (v * factor))) {
+                v = counters.get(i);
+            }
+        }
+        long t = total.sumThenReset();
+        total.add((long) (t * factor));
+    }
+
+    // ------------------------------------------------------------- 序列化
+
+    public int serializedSizeInBytes() {
+        return 20 + counters.length() * 8;
+    }
+
+    /**
+     * 按大端序写入buffer，从buffer当前位置开始
+     */
+    public void serialize(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            buffer.putInt(SERIAL_COOKIE);
+            buffer.putInt(depth);
+            buffer.putInt(width);
+            buffer.putLong(totalCount());
+            for (int i = 0, n = counters.length(); i < n; i++) {
+                buffer.putLong(counters.get(i));
+            }
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSizeInBytes());
+        serialize(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * 从buffer当前位置读取serialize写入的计数器
+     */
+    public static CountMinSketch deserialize(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.getInt() != SERIAL_COOKIE) throw new IllegalArgumentException("not a CountMinSketch");
+            int depth = buffer.getInt();
+            int width = buffer.getInt();
+            if (depth < 1 || width < 1 || Integer.bitCount(width) != 1 || (long) depth * width > MAX_CELLS) {
+                throw new IllegalArgumentException("bad CountMinSketch size: " + depth + "x" + width);
+            }
+            CountMinSketch r = new CountMinSketch(depth, width);
+            r.total.add(buffer.getLong());
+            for (int i = 0, n = r.counters.length(); i < n; i++) {
+                r.counters.set(i, buffer.getLong());
+            }
+            return r;
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    /**
+     * 第i行的计数器下标，combined = h1 + i * h2
+     */
+    private int cell(int i, long combined) {
+        return i * width + (int) ((combined >>> 32) & (width - 1));
+    }
+
+    /**
+     * 计数器不小于target
+     */
+    private void raise(int c, long target) {
+        long v = counters.get(c);
+        while (v < target && !counters.compareAndSet(c, v, target)) {
+            v = counters.get(c);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.lingdol.common.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 布谷鸟过滤器：与布隆过滤器一样判断元素一定不存在或可能存在，另外支持删除
+ * <p>
+ * 每个桶4个槽，每个槽保存16位指纹，误判率约为0.01%，每个元素约占17位。
+ * 元素只能放在两个候选桶中，都满时踢出已有指纹换到它的另一个候选桶；
+ * 装载率接近上限时put返回false。只能删除确实添加过的元素，否则可能误删其他元素。
+ * 哈希使用HashUtil，与JVM无关，序列化结果可以在其他进程中加载。
+ * 方法都是同步的，可以多线程共用
+ */
+public class CuckooFilter {
+
+    private static final int SERIAL_COOKIE = 0x4C444346;
+    private static final int SLOTS = 4;
+    private static final int MAX_KICKS = 500;
+    private static final int MAX_BUCKETS = 1 << 28;
+    private static final double LOAD_FACTOR = 0.95;
+
+    private final char[] table;
+    private final int mask;
+    private long count;
+
+    /**
+     * 踢出失败时暂存的指纹，存在时过滤器已满
+     */
+    private boolean hasVictim;
+    private int victimIndex;
+    private char victimFp;
+
+    private long random = 0x2545F4914F6CDD1DL;
+
+    private CuckooFilter(int buckets) {
+        this.table = new char[buckets * SLOTS];
+        this.mask = buckets - 1;
+    }
+
+    /**
+     * @param capacity 最多保存的元素个数
+     */
+    public static CuckooFilter create(long capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        long buckets = (long) Math.ceil(capacity / (SLOTS * LOAD_FACTOR));
+        if (buckets > MAX_BUCKETS) throw new IllegalArgumentException("capacity too large: " + capacity);
+        int n = 1;
+        while (n < buckets) {
+            n <<= 1;
+        }
+        return new CuckooFilter(n);
+    }
+
+    // ------------------------------------------------------------- 添加、查询、删除
+
+    /**
+     * @return 过滤器已满时返回false
+     */
+    public boolean put(CharSequence key) {
+        return putHash(HashUtil.hash64(key));
+    }
+
+    public boolean put(long key) {
+        return putHash(HashUtil.hash64(key));
+    }
+
+    public boolean put(byte[] key) {
+        return putHash(HashUtil.hash64(key));
+    }
+
+    public boolean mightContain(CharSequence key) {
+        return containsHash(HashUtil.hash64(key));
+    }
+
+    public boolean mightContain(long key) {
+        return containsHash(HashUtil.hash64(key));
+    }
+
+    public boolean mightContain(byte[] key) {
+        return containsHash(HashUtil.hash64(key));
+    }
+
+    /**
+     * 删除一个添加过的元素
+     *
+     * @return 找到并删除时返回true
+     */
+    public boolean delete(CharSequence key) {
+        return deleteHash(HashUtil.hash64(key));
+    }
+
+    public boolean delete(long key) {
+        return deleteHash(HashUtil.hash64(key));
+    }
+
+    public boolean delete(byte[] key) {
+        return deleteHash(HashUtil.hash64(key));
+    }
+
+    /**
+     * 将other中的元素并入当前过滤器，两者的桶数必须相同
+     *
+     * @return 过滤器装满、有元素没能并入时返回false，这些元素之后可能查不到
+     */
+    public boolean merge(CuckooFilter other) {
+        if (other == this) throw new IllegalArgumentException("cannot merge a CuckooFilter into itself");
+        if (other.table.length != table.length) {
+            throw new IllegalArgumentException("incompatible CuckooFilter: buckets " + (other.mask + 1) + "/" + (mask + 1));
+        }
+        // 先复制other再锁定当前过滤器，避免两个过滤器互相合并时死锁
+        char[] otherTable;
+        boolean otherHasVictim;
+        int otherVictimIndex;
+        char otherVictimFp;
+        synchronized (other) {
+            otherTable = other.table.clone();
+            otherHasVictim = other.hasVictim;
+            otherVictimIndex = other.victimIndex;
+            otherVictimFp = other.victimFp;
+        }
+
+        synchronized (this) {
+            boolean all = true;
+            for (int i = 0; i < otherTable.length; i++) {
+                char fp = otherTable[i];
+                if (fp == 0) continue;
+                if (insert(i / SLOTS, fp)) {
+                    count++;
+                } else {
+                    all = false;
+                }
+            }
+            if (otherHasVictim) {
+                if (insert(otherVictimIndex, otherVictimFp)) {
+                    count++;
+                } else {
+                    all = false;
+                }
+            }
+            return all;
+        }
+    }
+
+    /**
+     * 当前元素个数
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * 最多能保存的指纹个数
+     */
+    public long capacity() {
+        return table.length;
+    }
+
+    // ------------------------------------------------------------- 序列化
+
+    public int serializedSizeInBytes() {
+        return 4 + 4 + 8 + 1 + 4 + 2 + table.length * 2;
+    }
+
+    /**
+     * 按大端序写入buffer，从buffer当前位置开始
+     */
+    public synchronized void serialize(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            buffer.putInt(SERIAL_COOKIE);
+            buffer.putInt(mask + 1);
+            buffer.putLong(count);
+            buffer.put((byte) (hasVictim ? 1 : 0));
+            buffer.putInt(victimIndex);
+            buffer.putChar(victimFp);
+            for (char fp : table) {
+                buffer.putChar(fp);
+            }
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSizeInBytes());
+        serialize(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * 从buffer当前位置读取serialize写入的过滤器
+     */
+    public static CuckooFilter deserialize(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (buffer.getInt() != SERIAL_COOKIE) throw new IllegalArgumentException("not a CuckooFilter");
+            int buckets = buffer.getInt();
+            if (buckets < 1 || buckets > MAX_BUCKETS || Integer.bitCount(buckets) != 1) {
+                throw new IllegalArgumentException("bad bucket count: " + buckets);
+            }
+            CuckooFilter r = new CuckooFilter(buckets);
+            r.count = buffer.getLong();
+            r.hasVictim = buffer.get() != 0;
+            r.victimIndex = buffer.getInt() & r.mask;
+            r.victimFp = buffer.getChar();
+            buffer.asCharBuffer().get(r.table);
+            buffer.position(buffer.position() + r.table.length * 2);
+            return r;
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    private synchronized boolean putHash(long h) {
+        if (!insert(index(h), fingerprint(h))) return false;
+        count++;
+        return true;
+    }
+
+    private synchronized boolean containsHash(long h) {
+        char fp = fingerprint(h);
+        int i1 = index(h);
+        int i2 = alt(i1, fp);
+        if (hasVictim && victimFp == fp && (victimIndex == i1 || victimIndex == i2)) return true;
+        return find(i1, fp) >= 0 || find(i2, fp) >= 0;
+    }
+
+    private synchronized boolean deleteHash(long h) {
+        char fp = fingerprint(h);
+        int i1 = index(h);
+        int i2 = alt(i1, fp);
+        if (hasVictim && victimFp == fp && (victimIndex == i1 || victimIndex == i2)) {
+            hasVictim = false;
+            count--;
+            return true;
+        }
+
+        int slot = find(i1, fp);
+        if (slot < 0) slot = find(i2, fp);
+        if (slot < 0) return false;
+        table[slot] = 0;
+        count--;
+        if (hasVictim) {
+            hasVictim = false;
+            insert(victimIndex, victimFp);
+        }
+        return true;
+    }
+
+    /**
+     * 放入指纹，需要时踢出已有指纹；最后一个没处放的指纹暂存为victim
+     *
+     * @return 已有victim、过滤器已满时返回false
+     */
+    private boolean insert(int i1, char fp) {
+        if (hasVictim) return false;
+        int i2 = alt(i1, fp);
+        if (insertInto(i1, fp) || insertInto(i2, fp)) return true;
+
+        int i = (nextRandom() & 1) == 0 ? i1 : i2;
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            int slot = i * SLOTS + (nextRandom() & (SLOTS - 1));
+            char evicted = table[slot];
+            table[slot] = fp;
+            fp = evicted;
+            i = alt(i, fp);
+            if (insertInto(i, fp)) return true;
+        }
+        hasVictim = true;
+        victimIndex = i;
+        victimFp = fp;
+        return true;
+    }
+
+    private boolean insertInto(int bucket, char fp) {
+        int base = bucket * SLOTS;
+        for (int s = base; s < base + SLOTS; s++) {
+            if (table[s] == 0) {
+                table[s] = fp;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int find(int bucket, char fp) {
+        int base = bucket * SLOTS;
+        for (int s = base; s < base + SLOTS; s++) {
+            if (table[s] == fp) return s;
+        }
+        return -1;
+    }
+
+    private int index(long h) {
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * 16位指纹，0表示空槽，不使用
+     */
+    private static char fingerprint(long h) {
+        char fp = (char) h;
+        return fp == 0 ? 1 : fp;
+    }
+
+    /**
+     * 另一个候选桶，alt(alt(i, fp), fp) == i
+     */
+    private int alt(int bucket, char fp) {
+        return (bucket ^ (int) HashUtil.hash64((long) fp)) & mask;
+    }
+
+    private int nextRandom() {
+        long x = random;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        random = x;
+        return (int) x;
+    }
+}
@@ -0,0 +1,207 @@
+package com.lingdol.common.util;
+
+import java.util.UUID;
+
+/**
+ * 非加密哈希，结果与JVM、进程无关，可用于分片、持久化的布隆过滤器等需要跨进程一致的场景
+ * <p>
+ * 字节数组使用MurmurHash3 x64_128，取低64位；字符串按UTF-16LE字节计算，不做编码转换，
+ * 结果与hash64(str.getBytes(UTF_16LE))相同
+ */
+public class HashUtil {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    public static long hash64(byte[] data) {
+        if (data == null) return 0;
+        return hash64(data, 0, data.length, 0);
+    }
+
+    /**
+     * MurmurHash3 x64_128的低64位
+     *
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @param seed   种子
+     */
+    public static long hash64(byte[] data, int offset, int length, long seed) {
+        long h1 = seed;
+        long h2 = seed;
+        int blocks = length >>> 4;
+        for (int i = 0; i < blocks; i++) {
+            int p = offset + (i << 4);
+            h1 = mixH1(h1, h2, getLong(data, p));
+            h2 = mixH2(h2, h1, getLong(data, p + 8));
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = offset + (blocks << 4);
+        for (int i = (length & 15) - 1; i >= 0; i--) {
+            long b = data[tail + i] & 0xFFL;
+            if (i >= 8) {
+                k2 |= b << ((i - 8) << 3);
+            } else {
+                k1 |= b << (i << 3);
+            }
+        }
+        return finish(h1, h2, k1, k2, length);
+    }
+
+    public static long hash64(CharSequence s) {
+        if (s == null) return 0;
+        return hash64(s, 0);
+    }
+
+    /**
+     * 按UTF-16LE字节计算的MurmurHash3 x64_128低64位，每个char为2个字节
+     */
+    public static long hash64(CharSequence s, long seed) {
+        int chars = s.length();
+        long h1 = seed;
+        long h2 = seed;
+        int blocks = chars >>> 3;
+        for (int i = 0; i < blocks; i++) {
+            int p = i << 3;
+            h1 = mixH1(h1, h2, getLong(s, p));
+            h2 = mixH2(h2, h1, getLong(s, p + 4));
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks << 3;
+        for (int i = (chars & 7) - 1; i >= 0; i--) {
+            long c = s.charAt(tail + i);
+            if (i >= 4) {
+                k2 |= c << ((i - 4) << 4);
+            } else {
+                k1 |= c << (i << 4);
+            }
+        }
+        return finish(h1, h2, k1, k2, chars << 1);
+    }
+
+    /**
+     * long的64位哈希，分布均匀，0不会映射到0
+     */
+    public static long hash64(long value) {
+        return fmix64(value + 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * 按类型选择跨进程一致的哈希：字符串、整数、byte[]、字符、枚举（按名称）、UUID；
+     * 其他类型使用hashCode，只有hashCode本身稳定时结果才稳定；null为0
+     */
+    public static long hash64(Object o) {
+        if (o == null) return 0;
+        if (o instanceof CharSequence) return hash64((CharSequence) o);
+        if (o instanceof Long || o instanceof Integer || o instanceof Short || o instanceof Byte) {
+            return hash64(((Number) o).longValue());
+        }
+        if (o instanceof byte[]) return hash64((byte[]) o);
+        if (o instanceof Character) return hash64((long) (Character) o);
+        if (o instanceof Enum) return hash64(((Enum<?>) o).name());
+        if (o instanceof UUID) {
+            UUID u = (UUID) o;
+            return hash64(u.getMostSignificantBits() ^ hash64(u.getLeastSignificantBits()));
+        }
+        return hash64((long) o.hashCode());
+    }
+
+    /**
+     * Jump Consistent Hash：桶数从n变为n+1时，只有约1/(n+1)的key改变所在的桶
+     *
+     * @param key     key的哈希
+     * @param buckets 桶数
+     * @return [0, buckets)
+     */
+    public static int jumpHash(long key, int buckets) {
+        if (buckets < 1) throw new IllegalArgumentException("buckets must be positive: " + buckets);
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    /**
+     * 按取模分桶，[0, buckets)
+     */
+    public static int bucket(long hash, int buckets) {
+        if (buckets < 1) throw new IllegalArgumentException("buckets must be positive: " + buckets);
+        return (int) Long.remainderUnsigned(hash, buckets);
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    private static long mixH1(long h1, long h2, long k1) {
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        return h1 * 5 + 0x52dce729;
+    }
+
+    private static long mixH2(long h2, long h1, long k2) {
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        return h2 * 5 + 0x38495ab5;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long finish(long h1, long h2, long k1, long k2, int length) {
+        if (k2 != 0) h2 ^= mixK2(k2);
+        if (k1 != 0) h1 ^= mixK1(k1);
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        return h1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long getLong(byte[] b, int p) {
+        return (b[p] & 0xFFL)
+                | (b[p + 1] & 0xFFL) << 8
+                | (b[p + 2] & 0xFFL) << 16
+                | (b[p + 3] & 0xFFL) << 24
+                | (b[p + 4] & 0xFFL) << 32
+                | (b[p + 5] & 0xFFL) << 40
+                | (b[p + 6] & 0xFFL) << 48
+                | (b[p + 7] & 0xFFL) << 56;
+    }
+
+    private static long getLong(CharSequence s, int p) {
+        return (long) s.charAt(p)
+                | (long) s.charAt(p + 1) << 16
+                | (long) s.charAt(p + 2) << 32
+                | (long) s.charAt(p + 3) << 48;
+    }
+}
@@ -0,0 +1,175 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 高频key统计：在固定内存中跟踪出现次数最多的k个key
+ * <p>
+ * 次数由CountMinSketch估算（只会高估），另外保存估计次数最高的k个候选key。
+ * 新key的估计次数超过候选中的最小值时替换最小的候选；最小值有缓存，大部分低频key只需一次比较。
+ * 可以多线程同时添加；替换候选时加锁
+ * <pre>
+ * HeavyHitters&lt;String&gt; hot = HeavyHitters.create(100);
+ * hot.add(key);
+ * hot.topK(); // 按次数降序
+ * </pre>
+ *
+ * @param <K> key类型
+ */
+public class HeavyHitters<K> {
+
+    private final int k;
+    private final CountMinSketch sketch;
+    /**
+     * merge时整体替换，不在并发添加的过程中清空
+     */
+    private volatile ConcurrentHashMap<K, Long> candidates;
+    /**
+     * 候选已满时的最小估计次数，未满时为0
+     */
+    private volatile long minCount;
+
+    private HeavyHitters(int k, CountMinSketch sketch) {
+        this.k = k;
+        this.sketch = sketch;
+        this.candidates = new ConcurrentHashMap<>(MapUtil.capacity(k + 1));
+    }
+
+    /**
+     * 使用误差为总次数0.01%的CountMinSketch
+     *
+     * @param k 跟踪的key个数
+     */
+    public static <K> HeavyHitters<K> create(int k) {
+        return create(k, CountMinSketch.create(0.0001, 0.001));
+    }
+
+    /**
+     * @param k      跟踪的key个数
+     * @param sketch 用于估算次数的CountMinSketch，之后只由该对象使用
+     */
+    public static <K> HeavyHitters<K> create(int k, CountMinSketch sketch) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive: " + k);
+        if (sketch == null) throw new IllegalArgumentException("sketch must not be null");
+        return new HeavyHitters<>(k, sketch);
+    }
+
+    public long add(K key) {
+        return add(key, 1);
+    }
+
+    /**
+     * key的哈希方式见HashUtil.hash64(Object)
+     *
+     * @return 添加后的估计次数
+     */
+    public long add(K key, long count) {
+        if (key == null) throw new IllegalArgumentException("key must not be null");
+        long estimate = sketch.addHash(HashUtil.hash64(key), count);
+        if (candidates.computeIfPresent(key, (x, old) -> Math.max(old, estimate)) != null) return estimate;
+        if (estimate > minCount) offer(key, estimate);
+        return estimate;
+    }
+
+    /**
+     * 估计次数，不要求key在候选中
+     */
+    public long estimate(K key) {
+        return sketch.estimateHash(HashUtil.hash64(key));
+    }
+
+    /**
+     * 按估计次数降序排列的候选key，最多k个
+     */
+    public List<Map.Entry<K, Long>> topK() {
+        List<Map.Entry<K, Long>> r = new ArrayList<>(candidates.size());
+        for (Map.Entry<K, Long> e : candidates.entrySet()) {
+            r.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue()));
+        }
+        r.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return r;
+    }
+
+    public long totalCount() {
+        return sketch.totalCount();
+    }
+
+    /**
+     * 所有次数乘以factor，用于按时间衰减旧数据
+     */
+    public synchronized void decay(double factor) {
+        sketch.decay(factor);
+        candidates.replaceAll((key, v) -> (long) (v * factor));
+        refreshMin();
+    }
+
+    /**
+     * 合并other的次数和候选，两者的CountMinSketch大小必须相同
+     */
+    public synchronized HeavyHitters<K> merge(HeavyHitters<K> other) {
+        sketch.merge(other.sketch);
+        ConcurrentHashMap<K, Long> merged = new ConcurrentHashMap<>(
+                MapUtil.capacity(candidates.size() + other.candidates.size()));
+        for (K key : candidates.keySet()) {
+            merged.put(key, estimate(key));
+        }
+        for (K key : other.candidates.keySet()) {
+            merged.put(key, estimate(key));
+        }
+        evictToK(merged);
+        candidates = merged;
+        refreshMin();
+        return this;
+    }
+
+    /**
+     * 复制当前的次数和候选
+     */
+    public synchronized HeavyHitters<K> snapshot() {
+        HeavyHitters<K> r = new HeavyHitters<>(k, sketch.snapshot());
+        r.candidates.putAll(candidates);
+        r.minCount = minCount;
+        return r;
+    }
+
+    private synchronized void offer(K key, long estimate) {
+        if (candidates.containsKey(key)) {
+            candidates.merge(key, estimate, Math::max);
+            return;
+        }
+        if (candidates.size() >= k && estimate <= minCount) return;
+        candidates.put(key, estimate);
+        evictToK(candidates);
+        refreshMin();
+    }
+
+    /**
+     * 去掉次数最小的候选直到不超过k个
+     */
+    private void evictToK(Map<K, Long> candidates) {
+        while (candidates.size() > k) {
+            K minKey = null;
+            long min = Long.MAX_VALUE;
+            for (Map.Entry<K, Long> e : candidates.entrySet()) {
+                if (e.getValue() < min) {
+                    min = e.getValue();
+                    minKey = e.getKey();
+                }
+            }
+            candidates.remove(minKey);
+        }
+    }
+
+    private void refreshMin() {
+        if (candidates.size() < k) {
+            minCount = 0;
+            return;
+        }
+        long min = Long.MAX_VALUE;
+        for (Long v : candidates.values()) {
+            min = Math.min(min, v);
+        }
+        minCount = min;
+    }
+}
@@ -0,0 +1,170 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+
+/**
+ * 自动建立哈希索引的List，适合在循环中反复判断是否包含的白名单、规则集合
+ * <p>
+ * 用法与ArrayList相同。contains/indexOf的调用次数达到阈值后，建立元素到首个下标的哈希索引，
+ * 之后的查找为O(1)；在末尾追加元素时同步更新索引，其他修改使索引失效，下次查找重新计数。
+ * 元素较少时始终线性查找。
+ * <p>
+ * 与ArrayList一样非线程安全；不修改时可以多线程同时查找
+ *
+ * @param <T> 元素类型
+ */
+public class IndexedList<T> extends AbstractList<T> implements RandomAccess {
+
+    /**
+     * 默认查找多少次后建立索引
+     */
+    public static final int DEFAULT_INDEX_THRESHOLD = 4;
+
+    /**
+     * 元素个数不超过该值时不建索引
+     */
+    private static final int MIN_INDEXED_SIZE = 16;
+
+    private final ArrayList<T> elements;
+    private final int indexThreshold;
+    /**
+     * 元素到首次出现下标的索引，未建立或已失效时为null
+     */
+    private volatile Map<Object, Integer> index;
+    private int lookups;
+
+    public IndexedList() {
+        this(new ArrayList<>(), DEFAULT_INDEX_THRESHOLD);
+    }
+
+    /**
+     * 复制集合中的元素
+     */
+    public IndexedList(Collection<? extends T> c) {
+        this(new ArrayList<>(c), DEFAULT_INDEX_THRESHOLD);
+    }
+
+    /**
+     * @param c              初始元素
+     * @param indexThreshold 查找多少次后建立索引，为0时第一次查找就建立
+     */
+    public IndexedList(Collection<? extends T> c, int indexThreshold) {
+        this(new ArrayList<>(c), indexThreshold);
+    }
+
+    private IndexedList(ArrayList<T> elements, int indexThreshold) {
+        if (indexThreshold < 0) throw new IllegalArgumentException("indexThreshold must not be negative: " + indexThreshold);
+        this.elements = elements;
+        this.indexThreshold = indexThreshold;
+    }
+
+    @Override
+    public T get(int i) {
+        return elements.get(i);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Map<Object, Integer> idx = lookupIndex();
+        if (idx == null) return elements.indexOf(o);
+        Integer i = idx.get(o);
+        return i == null ? -1 : i;
+    }
+
+    @Override
+    public boolean add(T t) {
+        elements.add(t);
+        modCount++;
+        Map<Object, Integer> idx = index;
+        if (idx != null) idx.putIfAbsent(t, elements.size() - 1);
+        return true;
+    }
+
+    @Override
+    public void add(int i, T t) {
+        if (i == elements.size()) {
+            add(t);
+            return;
+        }
+        elements.add(i, t);
+        modCount++;
+        invalidate();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        if (c.isEmpty()) return false;
+        elements.ensureCapacity(elements.size() + c.size());
+        for (T t : c) {
+            add(t);
+        }
+        return true;
+    }
+
+    @Override
+    public T set(int i, T t) {
+        T old = elements.set(i, t);
+        invalidate();
+        return old;
+    }
+
+    @Override
+    public T remove(int i) {
+        T old = elements.remove(i);
+        modCount++;
+        invalidate();
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        modCount++;
+        invalidate();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        elements.subList(fromIndex, toIndex).clear();
+        modCount++;
+        invalidate();
+    }
+
+    /**
+     * 当前是否已建立索引
+     */
+    public boolean isIndexed() {
+        return index != null;
+    }
+
+    private void invalidate() {
+        index = null;
+        lookups = 0;
+    }
+
+    /**
+     * 返回可用的索引；查找次数达到阈值时建立
+     */
+    private Map<Object, Integer> lookupIndex() {
+        Map<Object, Integer> idx = index;
+        if (idx != null) return idx;
+        if (elements.size() <= MIN_INDEXED_SIZE || lookups++ < indexThreshold) return null;
+
+        idx = new HashMap<>(MapUtil.capacity(elements.size()));
+        for (int i = 0, n = elements.size(); i < n; i++) {
+            idx.putIfAbsent(elements.get(i), i);
+        }
+        index = idx;
+        return idx;
+    }
+}
@@ -0,0 +1,259 @@
+package com.lingdol.common.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * 用分隔符连接元素，不可变，可以复用和多线程共用
+ * <p>
+ * 元素为Collection时先遍历一次计算结果长度，StringBuilder只分配一次；
+ * appendTo直接写入Appendable（StringBuilder、Writer等），writeUtf8直接编码写入OutputStream或ByteBuffer，不生成中间String。
+ * 默认null元素输出为"null"，与String.join一致
+ * <pre>
+ * Joiner.on(",").skipNulls().withPrefix("(").withSuffix(")").join(ids); // (1,2,3)
+ * </pre>
+ */
+public final class Joiner {
+
+    /**
+     * 非CharSequence元素预估的长度
+     */
+    private static final int ESTIMATED_ELEMENT_LENGTH = 16;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String separator;
+    private final String prefix;
+    private final String suffix;
+    private final boolean skipNulls;
+    private final String nullText;
+
+    private Joiner(String separator, String prefix, String suffix, boolean skipNulls, String nullText) {
+        this.separator = separator;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.skipNulls = skipNulls;
+        this.nullText = nullText;
+    }
+
+    public static Joiner on(String separator) {
+        return new Joiner(separator == null ? StringUtil.EMPTY : separator, StringUtil.EMPTY, StringUtil.EMPTY, false, "null");
+    }
+
+    public static Joiner on(char separator) {
+        return on(String.valueOf(separator));
+    }
+
+    /**
+     * 跳过null元素，不输出分隔符
+     */
+    public Joiner skipNulls() {
+        return new Joiner(separator, prefix, suffix, true, nullText);
+    }
+
+    /**
+     * null元素输出为指定文本
+     */
+    public Joiner useForNull(String text) {
+        return new Joiner(separator, prefix, suffix, false, text == null ? "null" : text);
+    }
+
+    /**
+     * 结果的前缀，没有元素时也会输出
+     */
+    public Joiner withPrefix(String prefix) {
+        return new Joiner(separator, prefix == null ? StringUtil.EMPTY : prefix, suffix, skipNulls, nullText);
+    }
+
+    /**
+     * 结果的后缀，没有元素时也会输出
+     */
+    public Joiner withSuffix(String suffix) {
+        return new Joiner(separator, prefix, suffix == null ? StringUtil.EMPTY : suffix, skipNulls, nullText);
+    }
+
+    // ------------------------------------------------------------- 输出String
+
+    public String join(Iterable<?> parts) {
+        if (parts == null) return prefix + suffix;
+        StringBuilder sb = new StringBuilder(parts instanceof Collection ? length((Collection<?>) parts) : 16);
+        return appendTo(sb, parts.iterator()).toString();
+    }
+
+    public String join(Object... parts) {
+        if (parts == null) return prefix + suffix;
+        return join(Arrays.asList(parts));
+    }
+
+    /**
+     * 结果的长度；非CharSequence元素按预估长度计算
+     */
+    public int length(Collection<?> parts) {
+        long length = prefix.length() + suffix.length();
+        int count = 0;
+        for (Object part : parts) {
+            if (part == null) {
+                if (skipNulls) continue;
+                length += nullText.length();
+            } else {
+                length += part instanceof CharSequence ? ((CharSequence) part).length() : ESTIMATED_ELEMENT_LENGTH;
+            }
+            count++;
+        }
+        if (count > 1) length += (long) separator.length() * (count - 1);
+        return (int) Math.min(length, Integer.MAX_VALUE - 8);
+    }
+
+    // ------------------------------------------------------------- 输出到Appendable
+
+    public StringBuilder appendTo(StringBuilder sb, Iterable<?> parts) {
+        if (parts == null) return sb.append(prefix).append(suffix);
+        if (parts instanceof Collection) sb.ensureCapacity(sb.length() + length((Collection<?>) parts));
+        return appendTo(sb, parts.iterator());
+    }
+
+    public StringBuilder appendTo(StringBuilder sb, Iterator<?> parts) {
+        try {
+            appendTo((Appendable) sb, parts);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb;
+    }
+
+    /**
+     * 依次写入appendable，适合直接写入Writer
+     */
+    public <A extends Appendable> A appendTo(A appendable, Iterable<?> parts) throws IOException {
+        return appendTo(appendable, parts == null ? null : parts.iterator());
+    }
+
+    public <A extends Appendable> A appendTo(A appendable, Iterator<?> parts) throws IOException {
+        appendable.append(prefix);
+        boolean first = true;
+        while (parts != null && parts.hasNext()) {
+            Object part = parts.next();
+            if (part == null && skipNulls) continue;
+            if (!first) appendable.append(separator);
+            append(appendable, part);
+            first = false;
+        }
+        appendable.append(suffix);
+        return appendable;
+    }
+
+    // ------------------------------------------------------------- UTF-8输出
+
+    /**
+     * 按UTF-8编码写入out，不生成中间String；无法配对的代理字符写为'?'，与String.getBytes一致
+     *
+     * @return 写入的字节数
+     */
+    public long writeUtf8(OutputStream out, Iterable<?> parts) throws IOException {
+        Utf8Encoder encoder = new Utf8Encoder(out, null);
+        writeUtf8(encoder, parts);
+        return encoder.flush();
+    }
+
+    /**
+     * 按UTF-8编码写入buffer当前位置
+     *
+     * @return 写入的字节数
+     * @throws java.nio.BufferOverflowException buffer空间不足时
+     */
+    public long writeUtf8(ByteBuffer buffer, Iterable<?> parts) {
+        Utf8Encoder encoder = new Utf8Encoder(null, buffer);
+        try {
+            writeUtf8(encoder, parts);
+            return encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeUtf8(Utf8Encoder encoder, Iterable<?> parts) throws IOException {
+        encoder.write(prefix);
+        boolean first = true;
+        if (parts != null) {
+            for (Object part : parts) {
+                if (part == null && skipNulls) continue;
+                if (!first) encoder.write(separator);
+                encoder.write(part == null ? nullText : part instanceof CharSequence ? (CharSequence) part : part.toString());
+                first = false;
+            }
+        }
+        encoder.write(suffix);
+    }
+
+    private void append(Appendable appendable, Object part) throws IOException {
+        if (part == null) {
+            appendable.append(nullText);
+        } else if (part instanceof CharSequence) {
+            appendable.append((CharSequence) part);
+        } else {
+            appendable.append(part.toString());
+        }
+    }
+
+    /**
+     * 分块编码UTF-8，写满缓冲区后输出到OutputStream或ByteBuffer
+     */
+    private static final class Utf8Encoder {
+        private final OutputStream out;
+        private final ByteBuffer target;
+        private final byte[] buf = new byte[BUFFER_SIZE];
+        private int pos;
+        private long written;
+
+        Utf8Encoder(OutputStream out, ByteBuffer target) {
+            this.out = out;
+            this.target = target;
+        }
+
+        void write(CharSequence s) throws IOException {
+            for (int i = 0, n = s.length(); i < n; i++) {
+                if (pos > BUFFER_SIZE - 4) drain();
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    buf[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xC0 | (c >> 6));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buf[pos++] = '?';
+                } else {
+                    buf[pos++] = (byte) (0xE0 | (c >> 12));
+                    buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        long flush() throws IOException {
+            drain();
+            if (out != null) out.flush();
+            return written;
+        }
+
+        private void drain() throws IOException {
+            if (pos == 0) return;
+            if (out != null) {
+                out.write(buf, 0, pos);
+            } else {
+                target.put(buf, 0, pos);
+            }
+            written += pos;
+            pos = 0;
+        }
+    }
+}
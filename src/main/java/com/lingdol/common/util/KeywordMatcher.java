@@ -0,0 +1,371 @@
+package com.lingdol.common.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多关键词匹配（Aho-Corasick自动机），创建后不可变，可以多线程共用
+ * <p>
+ * 所有关键词编译成一个自动机，文本只扫描一遍，耗时与关键词个数无关。
+ * 状态转移按状态压缩存放在连续的数组中（每个状态的字符有序，按二分查找），没有逐个节点的Map；
+ * 根状态的ASCII转移直接查表。
+ * 可以忽略大小写、全角半角，折叠按单个字符进行，匹配位置就是原文本中的位置
+ * <pre>
+ * KeywordMatcher matcher = KeywordMatcher.of(words, KeywordMatcher.IGNORE_CASE | KeywordMatcher.FOLD_WIDTH);
+ * matcher.containsAny(title);
+ * matcher.findAll(title); // 所有匹配，可以重叠
+ * </pre>
+ */
+public final class KeywordMatcher {
+
+    /**
+     * 忽略大小写
+     */
+    public static final int IGNORE_CASE = 1;
+    /**
+     * 全角字符按半角匹配：全角ASCII（U+FF01 - U+FF5E）和全角空格（U+3000）
+     */
+    public static final int FOLD_WIDTH = 2;
+
+    private static final int ROOT = 0;
+    private static final int ASCII = 128;
+    /**
+     * 转移个数不超过该值时顺序查找
+     */
+    private static final int LINEAR_SCAN = 8;
+
+    private final int flags;
+    private final String[] keywords;
+    /**
+     * 状态i的转移位于labels/targets的[offsets[i], offsets[i + 1])，按字符升序
+     */
+    private final int[] offsets;
+    private final char[] labels;
+    private final int[] targets;
+    private final int[] rootAscii;
+    private final int[] fail;
+    /**
+     * 在状态结束的关键词下标，没有时为-1
+     */
+    private final int[] output;
+    /**
+     * 沿失败链最近的有输出的状态，没有时为-1
+     */
+    private final int[] dictLink;
+    private final boolean matchesEmpty;
+
+    private KeywordMatcher(int flags, String[] keywords, int[] offsets, char[] labels, int[] targets,
+                           int[] fail, int[] output, int[] dictLink, boolean matchesEmpty) {
+        this.flags = flags;
+        this.keywords = keywords;
+        this.offsets = offsets;
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.output = output;
+        this.dictLink = dictLink;
+        this.matchesEmpty = matchesEmpty;
+        this.rootAscii = new int[ASCII];
+        Arrays.fill(rootAscii, ROOT);
+        for (int i = offsets[ROOT]; i < offsets[ROOT + 1] && labels[i] < ASCII; i++) {
+            rootAscii[labels[i]] = targets[i];
+        }
+    }
+
+    public static KeywordMatcher of(String... keywords) {
+        return of(keywords == null ? null : Arrays.asList(keywords), 0);
+    }
+
+    public static KeywordMatcher of(Collection<String> keywords) {
+        return of(keywords, 0);
+    }
+
+    /**
+     * 编译关键词，忽略null，重复的关键词（折叠后相同）只保留第一个；空字符串匹配任何文本
+     *
+     * @param keywords 关键词
+     * @param flags    IGNORE_CASE、FOLD_WIDTH的组合
+     */
+    public static KeywordMatcher of(Collection<String> keywords, int flags) {
+        if ((flags & ~(IGNORE_CASE | FOLD_WIDTH)) != 0) throw new IllegalArgumentException("unknown flags: " + flags);
+        Map<String, String> unique = new LinkedHashMap<>();
+        if (keywords != null) {
+            for (String keyword : keywords) {
+                if (keyword != null) unique.putIfAbsent(fold(keyword, flags), keyword);
+            }
+        }
+        boolean matchesEmpty = unique.remove(StringUtil.EMPTY) != null;
+
+        // 先用每个状态一个HashMap建字典树，再压缩到数组
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        trie.add(new HashMap<>());
+        List<Integer> terminal = new ArrayList<>();
+        terminal.add(-1);
+        String[] originals = new String[unique.size()];
+        int k = 0;
+        for (Map.Entry<String, String> e : unique.entrySet()) {
+            String folded = e.getKey();
+            int state = ROOT;
+            for (int i = 0; i < folded.length(); i++) {
+                Integer next = trie.get(state).get(folded.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(folded.charAt(i), next);
+                    trie.add(new HashMap<>());
+                    terminal.add(-1);
+                }
+                state = next;
+            }
+            terminal.set(state, k);
+            originals[k++] = e.getValue();
+        }
+
+        int n = trie.size();
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + trie.get(i).size();
+        }
+        char[] labels = new char[offsets[n]];
+        int[] targets = new int[offsets[n]];
+        int[] output = new int[n];
+        for (int i = 0; i < n; i++) {
+            output[i] = terminal.get(i);
+            Character[] cs = trie.get(i).keySet().toArray(new Character[0]);
+            Arrays.sort(cs);
+            int p = offsets[i];
+            for (Character c : cs) {
+                labels[p] = c;
+                targets[p++] = trie.get(i).get(c);
+            }
+        }
+
+        // 按层次遍历计算失败链
+        int[] fail = new int[n];
+        int[] dictLink = new int[n];
+        Arrays.fill(dictLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int p = offsets[ROOT]; p < offsets[ROOT + 1]; p++) {
+            queue.add(targets[p]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int p = offsets[state]; p < offsets[state + 1]; p++) {
+                int child = targets[p];
+                char c = labels[p];
+                int f = fail[state];
+                int next;
+                while ((next = step(offsets, labels, targets, f, c)) < 0 && f != ROOT) {
+                    f = fail[f];
+                }
+                fail[child] = next < 0 ? ROOT : next;
+                int link = fail[child];
+                dictLink[child] = output[link] >= 0 ? link : dictLink[link];
+                queue.add(child);
+            }
+        }
+        return new KeywordMatcher(flags, originals, offsets, labels, targets, fail, output, dictLink, matchesEmpty);
+    }
+
+    // ------------------------------------------------------------- 匹配
+
+    /**
+     * 文本中是否包含任一关键词
+     */
+    public boolean containsAny(CharSequence text) {
+        if (text == null) return false;
+        if (matchesEmpty) return true;
+        int state = ROOT;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, text.charAt(i));
+            if (output[state] >= 0 || dictLink[state] >= 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 任一文本包含任一关键词
+     */
+    public boolean containsAny(Iterable<? extends CharSequence> texts) {
+        if (texts == null) return false;
+        for (CharSequence text : texts) {
+            if (containsAny(text)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 结束位置最靠前的匹配，同一位置结束时取最长的关键词；没有时返回null。空关键词不参与
+     */
+    public Match findFirst(CharSequence text) {
+        if (text == null) return null;
+        int state = ROOT;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, text.charAt(i));
+            int hit = output[state] >= 0 ? state : dictLink[state];
+            if (hit >= 0) return match(output[hit], i + 1);
+        }
+        return null;
+    }
+
+    /**
+     * 所有匹配，可以重叠；按结束位置升序，同一位置结束时长的在前。空关键词不参与
+     */
+    public List<Match> findAll(CharSequence text) {
+        List<Match> r = new ArrayList<>();
+        if (text == null) return r;
+        int state = ROOT;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, text.charAt(i));
+            for (int hit = output[state] >= 0 ? state : dictLink[state]; hit >= 0; hit = dictLink[hit]) {
+                r.add(match(output[hit], i + 1));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * 文本中出现的关键词（原始写法），按首次出现的顺序，不重复
+     */
+    public List<String> matchedKeywords(CharSequence text) {
+        List<String> r = new ArrayList<>();
+        if (text == null) return r;
+        boolean[] seen = new boolean[keywords.length];
+        for (Match m : findAll(text)) {
+            if (!seen[m.index]) {
+                seen[m.index] = true;
+                r.add(m.keyword);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * 关键词个数（去重后，不含空关键词）
+     */
+    public int size() {
+        return keywords.length;
+    }
+
+    public int flags() {
+        return flags;
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    private int next(int state, char c) {
+        c = foldChar(c, flags);
+        while (true) {
+            if (state == ROOT) {
+                return c < ASCII ? rootAscii[c] : Math.max(ROOT, step(offsets, labels, targets, ROOT, c));
+            }
+            int next = step(offsets, labels, targets, state, c);
+            if (next >= 0) return next;
+            state = fail[state];
+        }
+    }
+
+    private Match match(int index, int end) {
+        String keyword = keywords[index];
+        return new Match(keyword, index, end - keyword.length(), end);
+    }
+
+    /**
+     * 状态state按字符c转移后的状态，没有转移时返回-1
+     */
+    private static int step(int[] offsets, char[] labels, int[] targets, int state, char c) {
+        int lo = offsets[state];
+        int hi = offsets[state + 1] - 1;
+        if (hi - lo < LINEAR_SCAN) {
+            for (int p = lo; p <= hi; p++) {
+                if (labels[p] == c) return targets[p];
+                if (labels[p] > c) break;
+            }
+            return -1;
+        }
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = labels[mid];
+            if (m < c) {
+                lo = mid + 1;
+            } else if (m > c) {
+                hi = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static String fold(String s, int flags) {
+        if (flags == 0) return s;
+        char[] cs = s.toCharArray();
+        for (int i = 0; i < cs.length; i++) {
+            cs[i] = foldChar(cs[i], flags);
+        }
+        return new String(cs);
+    }
+
+    /**
+     * 逐字符折叠，不改变长度，匹配位置与原文本一致
+     */
+    static char foldChar(char c, int flags) {
+        if ((flags & FOLD_WIDTH) != 0) {
+            if (c >= '！' && c <= '～') {
+                c = (char) (c - 0xFEE0);
+            } else if (c == '　') {
+                c = ' ';
+            }
+        }
+        if ((flags & IGNORE_CASE) != 0) {
+            if (c < ASCII) {
+                if (c >= 'A' && c <= 'Z') c = (char) (c + ('a' - 'A'));
+            } else {
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+        }
+        return c;
+    }
+
+    /**
+     * 一次匹配：关键词及其在文本中的位置[start, end)
+     */
+    public static final class Match {
+        private final String keyword;
+        private final int index;
+        private final int start;
+        private final int end;
+
+        Match(String keyword, int index, int start, int end) {
+            this.keyword = keyword;
+            this.index = index;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * 关键词的原始写法
+         */
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return keyword + "@" + start;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * 按key比较新旧两个集合的结果：新增、删除、修改、未变
+ * <pre>
+ * ListDiff&lt;Product&gt; diff = ListUtil.diffBy(oldProducts, newProducts, Product::getId,
+ *         (a, b) -&gt; a.getPrice().equals(b.getPrice()));
+ * diff.getAdded();      // 只在新集合中的
+ * diff.getModified();   // key相同但内容不同的新旧值
+ * </pre>
+ * key重复时，旧集合中多出来的算删除，新集合中多出来的算新增
+ *
+ * @param <T> 元素类型
+ */
+public final class ListDiff<T> {
+
+    private final List<T> added;
+    private final List<T> removed;
+    private final List<Change<T>> modified;
+    private final List<T> unchanged;
+
+    private ListDiff(List<T> added, List<T> removed, List<Change<T>> modified, List<T> unchanged) {
+        this.added = added;
+        this.removed = removed;
+        this.modified = modified;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * 一次哈希遍历完成比较：只为旧集合建索引，再遍历一次新集合
+     *
+     * @param oldList     旧集合
+     * @param newList     新集合
+     * @param keyFn       key
+     * @param equivalence 判断key相同的两个元素内容是否相同，为null时使用equals
+     */
+    public static <T, K> ListDiff<T> of(List<T> oldList, List<T> newList, Function<? super T, ? extends K> keyFn,
+                                        BiPredicate<? super T, ? super T> equivalence) {
+        List<T> olds = oldList == null ? Collections.<T>emptyList() : oldList;
+        List<T> news = newList == null ? Collections.<T>emptyList() : newList;
+        BiPredicate<? super T, ? super T> eq = equivalence == null ? Objects::equals : equivalence;
+
+        Object[] oldValues = olds.toArray();
+        Map<K, Integer> index = new HashMap<>(MapUtil.capacity(oldValues.length));
+        for (int i = 0; i < oldValues.length; i++) {
+            index.putIfAbsent(keyFn.apply(ListDiff.<T>cast(oldValues[i])), i);
+        }
+
+        boolean[] matched = new boolean[oldValues.length];
+        List<T> added = new ArrayList<>();
+        List<Change<T>> modified = new ArrayList<>();
+        List<T> unchanged = new ArrayList<>();
+        for (T n : news) {
+            Integer i = index.remove(keyFn.apply(n));
+            if (i == null) {
+                added.add(n);
+                continue;
+            }
+            matched[i] = true;
+            T o = cast(oldValues[i]);
+            if (eq.test(o, n)) {
+                unchanged.add(n);
+            } else {
+                modified.add(new Change<>(o, n));
+            }
+        }
+
+        List<T> removed = new ArrayList<>();
+        for (int i = 0; i < oldValues.length; i++) {
+            if (!matched[i]) removed.add(ListDiff.<T>cast(oldValues[i]));
+        }
+        return new ListDiff<>(added, removed, modified, unchanged);
+    }
+
+    /**
+     * 流式比较两个已按key升序排列的数据源，结果逐条交给listener，不保存任何一边的数据
+     *
+     * @param oldSource     按key升序的旧数据
+     * @param newSource     按key升序的新数据
+     * @param keyFn         key
+     * @param keyComparator key的比较器，与数据源的排序一致
+     * @param equivalence   判断key相同的两个元素内容是否相同，为null时使用equals
+     * @param listener      接收比较结果
+     * @throws IllegalStateException 数据源没有按key升序排列时
+     */
+    public static <T, K> void sorted(Iterator<? extends T> oldSource, Iterator<? extends T> newSource,
+                                     Function<? super T, ? extends K> keyFn, Comparator<? super K> keyComparator,
+                                     BiPredicate<? super T, ? super T> equivalence, Listener<? super T> listener) {
+        BiPredicate<? super T, ? super T> eq = equivalence == null ? Objects::equals : equivalence;
+        Cursor<T, K> o = new Cursor<>(oldSource, keyFn, keyComparator);
+        Cursor<T, K> n = new Cursor<>(newSource, keyFn, keyComparator);
+        while (o.present || n.present) {
+            int c;
+            if (!o.present) c = 1;
+            else if (!n.present) c = -1;
+            else c = keyComparator.compare(o.key, n.key);
+
+            if (c < 0) {
+                listener.onRemoved(o.value);
+                o.next();
+            } else if (c > 0) {
+                listener.onAdded(n.value);
+                n.next();
+            } else {
+                if (eq.test(o.value, n.value)) {
+                    listener.onUnchanged(o.value, n.value);
+                } else {
+                    listener.onModified(o.value, n.value);
+                }
+                o.next();
+                n.next();
+            }
+        }
+    }
+
+    public List<T> getAdded() {
+        return added;
+    }
+
+    public List<T> getRemoved() {
+        return removed;
+    }
+
+    public List<Change<T>> getModified() {
+        return modified;
+    }
+
+    /**
+     * 未变的元素，取新集合中的值
+     */
+    public List<T> getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * 是否没有任何新增、删除、修改
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && modified.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ListDiff{added=" + added.size() + ", removed=" + removed.size()
+                + ", modified=" + modified.size() + ", unchanged=" + unchanged.size() + '}';
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object o) {
+        return (T) o;
+    }
+
+    /**
+     * key相同但内容不同的一对新旧值
+     */
+    public static final class Change<T> {
+        private final T oldValue;
+        private final T newValue;
+
+        Change(T oldValue, T newValue) {
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        public T getOldValue() {
+            return oldValue;
+        }
+
+        public T getNewValue() {
+            return newValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Change)) return false;
+            Change<?> that = (Change<?>) o;
+            return Objects.equals(oldValue, that.oldValue) && Objects.equals(newValue, that.newValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(oldValue, newValue);
+        }
+
+        @Override
+        public String toString() {
+            return oldValue + " -> " + newValue;
+        }
+    }
+
+    /**
+     * 流式比较的结果回调，按key升序依次调用
+     */
+    public interface Listener<T> {
+        default void onAdded(T newValue) {
+        }
+
+        default void onRemoved(T oldValue) {
+        }
+
+        default void onModified(T oldValue, T newValue) {
+        }
+
+        default void onUnchanged(T oldValue, T newValue) {
+        }
+    }
+
+    /**
+     * 有序数据源的当前位置，检查key是否升序
+     */
+    private static final class Cursor<T, K> {
+        private final Iterator<? extends T> source;
+        private final Function<? super T, ? extends K> keyFn;
+        private final Comparator<? super K> keyComparator;
+        boolean present;
+        T value;
+        K key;
+
+        Cursor(Iterator<? extends T> source, Function<? super T, ? extends K> keyFn, Comparator<? super K> keyComparator) {
+            this.source = source;
+            this.keyFn = keyFn;
+            this.keyComparator = keyComparator;
+            next();
+        }
+
+        void next() {
+            if (source == null || !source.hasNext()) {
+                present = false;
+                value = null;
+                return;
+            }
+            T v = source.next();
+            K k = keyFn.apply(v);
+            if (present && keyComparator.compare(key, k) > 0) {
+                throw new IllegalStateException("source is not sorted by key: " + key + " before " + k);
+            }
+            present = true;
+            value = v;
+            key = k;
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package com.lingdol.common.util;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ListUtil {
 
+    /**
+     * 分组、计数时预分配的最大分组数；分组数通常远小于元素个数，按元素个数预分配会浪费内存
+     */
+    public static final int GROUP_PRESIZE_LIMIT = 1 << 10;
+
     public static <T> List<T> emptyList() {
         return new ArrayList<>();
     }
@@ -25,17 +38,109 @@ public class ListUtil {
         if (source == null || source.size() <= 0 || size < 1) {
             return Collections.emptyList();
         }
+        return copyOf(Partition.bySize(source, size));
+    }
 
-        List<List<T>> resultList = new ArrayList<>();
-        BigDecimal temp = BigDecimal.valueOf(source.size()).divide(BigDecimal.valueOf(size), RoundingMode.CEILING);
-        int num = temp.intValue();
-        for (int i = 0; i < num; i++) {
-            int start = size * i;
-            int end = size * (i + 1);
-            if (end >= source.size()) {
-                end = source.size();
-            }
-            resultList.add(new ArrayList<>(source.subList(start, end)));
+    /**
+     * 将集合按指定长度分段，返回原集合的只读视图，不复制元素
+     * <p>
+     * 每段及返回的集合都支持随机访问（原集合支持时）；原集合结构变化后视图失效
+     *
+     * @param source 原集合
+     * @param size   每段的元素个数
+     * @param <T>    泛型
+     * @return 分段视图
+     */
+    public static <T> List<List<T>> partition(List<T> source, int size) {
+        if (source == null || source.size() <= 0 || size < 1) {
+            return Collections.emptyList();
+        }
+        return Partition.bySize(source, size);
+    }
+
+    /**
+     * 将集合平均分成指定段数，返回原集合的只读视图，不复制元素
+     *
+     * @param source 原集合
+     * @param number 段数
+     * @param <T>    泛型
+     * @return 分段视图，元素不足时每段一个元素
+     * @see #splitAverage(List, int)
+     */
+    public static <T> List<List<T>> partitionAverage(List<T> source, int number) {
+        if (source == null || source.size() <= 0 || number < 1) {
+            return Collections.emptyList();
+        }
+        return Partition.byNumber(source, number);
+    }
+
+    /**
+     * 按指定长度逐段迭代，每次迭代时才读取下一段
+     *
+     * @param source 原集合
+     * @param size   每段的元素个数
+     * @param <T>    泛型
+     * @return 分段迭代
+     */
+    public static <T> Iterable<List<T>> chunk(Iterable<T> source, int size) {
+        if (source == null || size < 1) return Collections.emptyList();
+
+        return () -> new Partition.ChunkIterator<>(source.iterator(), size,
+                source instanceof Collection ? ((Collection<?>) source).size() : -1);
+    }
+
+    /**
+     * 按指定长度逐段读取迭代器
+     *
+     * @param source 原迭代器
+     * @param size   每段的元素个数
+     * @param <T>    泛型
+     * @return 分段迭代器
+     */
+    public static <T> Iterator<List<T>> chunk(Iterator<T> source, int size) {
+        if (source == null || size < 1) return Collections.emptyIterator();
+        return new Partition.ChunkIterator<>(source, size, -1);
+    }
+
+    /**
+     * 将元素流按指定长度分批，元素到达时逐批输出，不需要先收集整个流
+     * <p>
+     * 返回的流关闭时会关闭原流；并行流中除最后一批外每批都是满的，批次顺序与原流一致
+     *
+     * @param stream 元素流
+     * @param size   每批的元素个数
+     * @param <T>    泛型
+     * @return 批次流
+     */
+    public static <T> Stream<List<T>> chunked(Stream<T> stream, int size) {
+        if (stream == null) return Stream.empty();
+        if (size < 1) throw new IllegalArgumentException("size must be positive: " + size);
+
+        return StreamSupport.stream(new Chunks.ChunkSpliterator<>(stream.spliterator(), size), stream.isParallel())
+                .onClose(stream::close);
+    }
+
+    /**
+     * 分批收集器：每满size个元素就交给consumer处理，结束时处理剩余部分
+     * <p>
+     * 用于并行流时consumer需要线程安全，批次之间不保证顺序
+     *
+     * @param size     每批的元素个数
+     * @param consumer 批次处理
+     * @param <T>      泛型
+     * @return 收集器，结果为处理的批数
+     */
+    public static <T> Collector<T, ?, Long> chunking(int size, Consumer<? super List<T>> consumer) {
+        if (size < 1) throw new IllegalArgumentException("size must be positive: " + size);
+        if (consumer == null) throw new IllegalArgumentException("consumer must not be null");
+
+        return Chunks.collector(size, consumer);
+    }
+
+    private static <T> List<List<T>> copyOf(List<List<T>> parts) {
+        List<List<T>> resultList = new ArrayList<>(parts.size());
+        for (List<T> part : parts) {
+            resultList.add(new ArrayList<>(part));
         }
         return resultList;
     }
@@ -51,6 +156,20 @@ public class ListUtil {
         return r;
     }
 
+    /**
+     * 数组转基本类型集合，直接使用原数组，不复制不装箱
+     */
+    public static IntList toIntList(int[] is) {
+        return IntList.wrap(is);
+    }
+
+    /**
+     * 数组转基本类型集合，直接使用原数组，不复制不装箱
+     */
+    public static LongList toLongList(long[] ls) {
+        return LongList.wrap(ls);
+    }
+
     public static <T> List<T> toList(Collection<T> cs) {
         if (cs == null) return emptyList();
         return new ArrayList<>(cs);
@@ -119,36 +238,62 @@ public class ListUtil {
         if (source == null || source.size() <= 0 || number < 1) {
             return Collections.emptyList();
         }
+        return copyOf(Partition.byNumber(source, number));
+    }
 
-        int left = source.size() % number;
-        int size = source.size() / number;
+    /**
+     * 按key的哈希取模拆成n个集合，相同key总是落在同一个集合中，结果与JVM、重启无关
+     * <p>
+     * 返回的集合个数固定为n，下标即分片号，没有元素的分片为空集合；各分片内保持原顺序
+     *
+     * @param source 原集合
+     * @param n      分片数
+     * @param keyFn  分片key，哈希方式见HashUtil.hash64(Object)
+     * @param <T>    泛型
+     * @param <K>    key类型
+     * @return 拆分后的集合
+     */
+    public static <T, K> List<List<T>> splitByHash(List<T> source, int n, Function<? super T, ? extends K> keyFn) {
+        if (source == null || source.size() <= 0 || n < 1 || keyFn == null) {
+            return Collections.emptyList();
+        }
+        int[] buckets = new int[source.size()];
+        int i = 0;
+        for (T t : source) {
+            buckets[i++] = HashUtil.bucket(HashUtil.hash64(keyFn.apply(t)), n);
+        }
+        return distribute(source, buckets, n);
+    }
 
-        List<List<T>> resultList = new ArrayList<>();
-        if (size > 0) {
-            int start = 0;
-            for (int i = 0; i < number; i++) {
-                if (i != 0) start += size;
-                if (i <= left && i != 0) {
-                    start += 1;
-                }
+    /**
+     * 同splitByHash，使用一致性哈希（Jump Consistent Hash）：分片数从n变为n+1时，只有约1/(n+1)的元素换分片
+     */
+    public static <T, K> List<List<T>> splitByConsistentHash(List<T> source, int n, Function<? super T, ? extends K> keyFn) {
+        if (source == null || source.size() <= 0 || n < 1 || keyFn == null) {
+            return Collections.emptyList();
+        }
+        int[] buckets = new int[source.size()];
+        int i = 0;
+        for (T t : source) {
+            buckets[i++] = HashUtil.jumpHash(HashUtil.hash64(keyFn.apply(t)), n);
+        }
+        return distribute(source, buckets, n);
+    }
 
-                int end = start + size;
-                if (i < left) {
-                    end += 1;
-                }
-                if (end >= source.size()) {
-                    end = source.size();
-                }
-                resultList.add(new ArrayList<>(source.subList(start, end)));
-            }
-        } else {
-            for (int i = 0; i < left; i++) {
-                List<T> s = new ArrayList<>();
-                s.add(source.get(i));
-                resultList.add(s);
-            }
+    private static <T> List<List<T>> distribute(List<T> source, int[] buckets, int n) {
+        int[] counts = new int[n];
+        for (int b : buckets) {
+            counts[b]++;
         }
-        return resultList;
+        List<List<T>> r = new ArrayList<>(n);
+        for (int count : counts) {
+            r.add(new ArrayList<>(count));
+        }
+        int i = 0;
+        for (T t : source) {
+            r.get(buckets[i++]).add(t);
+        }
+        return r;
     }
 
 
@@ -167,6 +312,43 @@ public class ListUtil {
         return result;
     }
 
+    /**
+     * 多路归并多个已按comparator排好序的集合，结果整体有序
+     * <p>
+     * 比较结果相等时，前面集合的元素排在前面，同一集合内保持原顺序
+     *
+     * @param input      已排序的集合
+     * @param comparator 各集合排序所用的比较器
+     * @param <T>        泛型
+     * @return 合并后的集合
+     */
+    public static <T> List<T> mergeSorted(Collection<? extends List<T>> input, Comparator<? super T> comparator) {
+        if (input == null || input.isEmpty()) return emptyList();
+        if (comparator == null) return merge(new ArrayList<>(input));
+
+        return SortOps.mergeSorted(input, comparator);
+    }
+
+
+    /**
+     * 分批并发执行，结果按批次顺序合并，任意一批失败时抛出BatchExecutor.BatchException
+     *
+     * @param source      原集合
+     * @param size        每批的元素个数
+     * @param parallelism 最多同时执行的批数
+     * @param fn          每批的处理函数
+     * @param <T>         泛型
+     * @param <R>         结果类型
+     * @return 合并后的结果
+     * @see BatchExecutor
+     */
+    public static <T, R> List<R> batch(List<T> source, int size, int parallelism,
+                                       Function<? super List<T>, ? extends Collection<? extends R>> fn) {
+        if (isEmpty(source)) return emptyList();
+
+        return BatchExecutor.<T, R>of(fn).chunkSize(size).parallelism(parallelism).execute(source).getOrThrow();
+    }
+
 
     public static boolean noEmpty(List<?>... es) {
         if (es == null || es.length <= 0) return false;
@@ -195,18 +377,238 @@ public class ListUtil {
     }
 
 
+    /**
+     * 获取第一个元素，List、Deque、SortedSet直接读取，不创建迭代器
+     */
     public static <T> T first(Collection<T> c) {
-        return isNotEmpty(c) ? c.iterator().next() : null;
+        if (isEmpty(c)) return null;
+        if (c instanceof List) return ((List<T>) c).get(0);
+        if (c instanceof Deque) return ((Deque<T>) c).peekFirst();
+        if (c instanceof SortedSet) return ((SortedSet<T>) c).first();
+        return c.iterator().next();
     }
 
+    /**
+     * 获取前nums个元素，集合为空时返回null
+     */
     public static <T> List<T> first(Collection<T> c, int nums) {
         if (isEmpty(c)) return null;
+        int n = Math.min(Math.max(nums, 0), c.size());
+        if (c instanceof List) return new ArrayList<>(((List<T>) c).subList(0, n));
 
-        return c.stream().limit(Math.min(nums, size(c))).collect(Collectors.toList());
+        List<T> r = new ArrayList<>(n);
+        Iterator<T> it = c.iterator();
+        while (r.size() < n && it.hasNext()) {
+            r.add(it.next());
+        }
+        return r;
     }
 
+    /**
+     * 获取最后一个元素，RandomAccess、Deque、SortedSet直接读取，其他List从尾部反向读取
+     */
     public static <T> T last(Collection<T> c) {
-        return isNotEmpty(c) ? c.stream().reduce((pre, cur) -> cur).orElse(null) : null;
+        if (isEmpty(c)) return null;
+        if (c instanceof Deque) return ((Deque<T>) c).peekLast();
+        if (c instanceof List) {
+            List<T> list = (List<T>) c;
+            return list instanceof RandomAccess ? list.get(list.size() - 1) : list.listIterator(list.size()).previous();
+        }
+        if (c instanceof SortedSet) return ((SortedSet<T>) c).last();
+
+        T last = null;
+        for (T t : c) {
+            last = t;
+        }
+        return last;
+    }
+
+    /**
+     * 获取最后nums个元素，保持原顺序，集合为空时返回null
+     */
+    public static <T> List<T> last(Collection<T> c, int nums) {
+        if (isEmpty(c)) return null;
+        int n = Math.min(Math.max(nums, 0), c.size());
+        if (c instanceof List) {
+            List<T> list = (List<T>) c;
+            return new ArrayList<>(list.subList(list.size() - n, list.size()));
+        }
+        if (c instanceof Deque) {
+            List<T> r = new ArrayList<>(n);
+            Iterator<T> it = ((Deque<T>) c).descendingIterator();
+            while (r.size() < n && it.hasNext()) {
+                r.add(it.next());
+            }
+            Collections.reverse(r);
+            return r;
+        }
+
+        List<T> r = new ArrayList<>(n);
+        int skip = c.size() - n;
+        for (T t : c) {
+            if (skip-- <= 0) r.add(t);
+        }
+        return r;
+    }
+
+    /**
+     * 获取集合中指定位置的元素，越界时返回null；List直接按下标读取，Deque靠近尾部时从尾部读取
+     */
+    public static <T> T get(Collection<T> c, int index) {
+        if (isEmpty(c) || index < 0 || index >= c.size()) return null;
+        if (c instanceof List) return ((List<T>) c).get(index);
+
+        Iterator<T> it;
+        int steps;
+        if (c instanceof Deque && index >= c.size() / 2) {
+            it = ((Deque<T>) c).descendingIterator();
+            steps = c.size() - 1 - index;
+        } else {
+            it = c.iterator();
+            steps = index;
+        }
+        for (int i = 0; i < steps; i++) {
+            it.next();
+        }
+        return it.next();
+    }
+
+    /**
+     * 按比较器顺序取前n个元素，结果按比较器顺序排列；使用大小为n的堆，不对整个集合排序
+     * <p>
+     * 比较结果相等的元素之间不保证原顺序
+     *
+     * @param c          集合
+     * @param n          个数
+     * @param comparator 比较器，取最小的n个；需要最大的n个时传入逆序比较器
+     */
+    public static <T> List<T> topN(Collection<T> c, int n, Comparator<? super T> comparator) {
+        if (isEmpty(c) || n <= 0 || comparator == null) return emptyList();
+        if (n >= c.size()) {
+            List<T> r = new ArrayList<>(c);
+            r.sort(comparator);
+            return r;
+        }
+
+        PriorityQueue<T> heap = new PriorityQueue<>(n + 1, comparator.reversed());
+        for (T t : c) {
+            if (heap.size() < n) {
+                heap.add(t);
+            } else if (comparator.compare(t, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(t);
+            }
+        }
+        List<T> r = new ArrayList<>(heap);
+        r.sort(comparator);
+        return r;
+    }
+
+    /**
+     * 按多个key依次排序，返回新集合，原集合不变
+     * <p>
+     * 每个元素的key只计算一次，不会在比较时反复调用getter；排序是稳定的，key为null的排在最后
+     *
+     * @param list   集合
+     * @param keyFns 排序key，前面的优先
+     * @param <T>    泛型
+     * @return 排序后的集合
+     */
+    @SafeVarargs
+    public static <T> List<T> sortBy(List<T> list, Function<? super T, ? extends Comparable<?>>... keyFns) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFns == null || keyFns.length == 0) return new ArrayList<>(list);
+
+        List<Function<? super T, ? extends Comparable<?>>> fns = new ArrayList<>(keyFns.length);
+        for (Function<? super T, ? extends Comparable<?>> fn : keyFns) {
+            fns.add(fn);
+        }
+        return SortOps.sortBy(list, fns, false);
+    }
+
+    /**
+     * 按key和key的比较器排序，返回新集合；每个元素的key只计算一次，排序是稳定的
+     */
+    public static <T, K> List<T> sortBy(List<T> list, Function<? super T, ? extends K> keyFn, Comparator<? super K> keyComparator) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFn == null || keyComparator == null) return new ArrayList<>(list);
+
+        return SortOps.sortBy(list, keyFn, keyComparator, false);
+    }
+
+    /**
+     * 按int key升序排序，返回新集合；key与下标打包成long数组排序，排序是稳定的
+     */
+    public static <T> List<T> sortByInt(List<T> list, ToIntFunction<? super T> keyFn) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFn == null) return new ArrayList<>(list);
+
+        return SortOps.sortByInt(list, keyFn, false);
+    }
+
+    /**
+     * 按long key升序排序，返回新集合；排序是稳定的
+     */
+    public static <T> List<T> sortByLong(List<T> list, ToLongFunction<? super T> keyFn) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFn == null) return new ArrayList<>(list);
+
+        return SortOps.sortByLong(list, keyFn, false);
+    }
+
+    /**
+     * 按double key升序排序，返回新集合；顺序与Double.compare一致，NaN排在最后，排序是稳定的
+     */
+    public static <T> List<T> sortByDouble(List<T> list, ToDoubleFunction<? super T> keyFn) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFn == null) return new ArrayList<>(list);
+
+        return SortOps.sortByDouble(list, keyFn, false);
+    }
+
+    /**
+     * 同sortBy，元素较多时使用ForkJoinPool.commonPool()并行排序；keyFns需要线程安全
+     */
+    @SafeVarargs
+    public static <T> List<T> parallelSortBy(List<T> list, Function<? super T, ? extends Comparable<?>>... keyFns) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFns == null || keyFns.length == 0) return new ArrayList<>(list);
+
+        List<Function<? super T, ? extends Comparable<?>>> fns = new ArrayList<>(keyFns.length);
+        for (Function<? super T, ? extends Comparable<?>> fn : keyFns) {
+            fns.add(fn);
+        }
+        return SortOps.sortBy(list, fns, true);
+    }
+
+    /**
+     * 同sortByInt，元素较多时并行排序
+     */
+    public static <T> List<T> parallelSortByInt(List<T> list, ToIntFunction<? super T> keyFn) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFn == null) return new ArrayList<>(list);
+
+        return SortOps.sortByInt(list, keyFn, true);
+    }
+
+    /**
+     * 同sortByLong，元素较多时并行排序
+     */
+    public static <T> List<T> parallelSortByLong(List<T> list, ToLongFunction<? super T> keyFn) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFn == null) return new ArrayList<>(list);
+
+        return SortOps.sortByLong(list, keyFn, true);
+    }
+
+    /**
+     * 同sortByDouble，元素较多时并行排序
+     */
+    public static <T> List<T> parallelSortByDouble(List<T> list, ToDoubleFunction<? super T> keyFn) {
+        if (isEmpty(list)) return emptyList();
+        if (keyFn == null) return new ArrayList<>(list);
+
+        return SortOps.sortByDouble(list, keyFn, true);
     }
 
     /**
@@ -216,19 +618,69 @@ public class ListUtil {
         if (isEmpty(t1)) return isEmpty(t2) ? new ArrayList<>() : t2;
         if (isEmpty(t2)) return isEmpty(t1) ? new ArrayList<>() : t1;
 
-        List<T> result = new ArrayList<>();
-        for (T o1 : t1) {
-            if (!t2.contains(o1) && !result.contains(o1)) {
-                result.add(o1);
-            }
-        }
+        return SetAlgebra.difference(t1, t2, Function.identity());
+    }
 
-        for (T o2 : t2) {
-            if (!t1.contains(o2) && !result.contains(o2)) {
-                result.add(o2);
-            }
-        }
-        return result;
+    /**
+     * 按key找出两个集合中有差异的元素，先t1后t2，key相同的只保留首个
+     *
+     * @param t1    集合1
+     * @param t2    集合2
+     * @param keyFn key提取函数
+     * @param <T>   泛型
+     * @param <K>   key类型
+     * @return key只出现在其中一个集合中的元素
+     */
+    public static <T, K> List<T> differenceBy(List<T> t1, List<T> t2, Function<? super T, ? extends K> keyFn) {
+        if (keyFn == null) return difference(t1, t2);
+        if (isEmpty(t1) && isEmpty(t2)) return emptyList();
+        if (isEmpty(t1)) return deDuplicateBy(t2, keyFn);
+        if (isEmpty(t2)) return deDuplicateBy(t1, keyFn);
+
+        return SetAlgebra.difference(t1, t2, keyFn);
+    }
+
+    /**
+     * 按key比较新旧集合，区分新增、删除、修改和未变的元素；只为旧集合建一次哈希索引，线性时间
+     *
+     * @param oldList     旧集合
+     * @param newList     新集合
+     * @param keyFn       key提取函数，为null时以元素本身为key
+     * @param equivalence 判断key相同的两个元素内容是否相同，为null时使用equals
+     * @param <T>         泛型
+     * @param <K>         key类型
+     * @return 比较结果
+     */
+    public static <T, K> ListDiff<T> diffBy(List<T> oldList, List<T> newList, Function<? super T, ? extends K> keyFn,
+                                            BiPredicate<? super T, ? super T> equivalence) {
+        if (keyFn == null) return ListDiff.of(oldList, newList, Function.identity(), equivalence);
+        return ListDiff.of(oldList, newList, keyFn, equivalence);
+    }
+
+    /**
+     * 按key比较新旧集合，key相同的元素用equals判断是否修改
+     */
+    public static <T, K> ListDiff<T> diffBy(List<T> oldList, List<T> newList, Function<? super T, ? extends K> keyFn) {
+        return diffBy(oldList, newList, keyFn, null);
+    }
+
+    /**
+     * 流式比较两个已按key升序排列的数据源，结果逐条交给listener；不保存任何一边的数据，适合大批量的快照比较
+     *
+     * @param oldSource     按key升序的旧数据
+     * @param newSource     按key升序的新数据
+     * @param keyFn         key提取函数
+     * @param keyComparator key的比较器，与数据源的排序一致
+     * @param equivalence   判断key相同的两个元素内容是否相同，为null时使用equals
+     * @param listener      接收比较结果
+     * @throws IllegalStateException 数据源没有按key升序排列时
+     */
+    public static <T, K> void diffSortedBy(Iterable<? extends T> oldSource, Iterable<? extends T> newSource,
+                                           Function<? super T, ? extends K> keyFn, Comparator<? super K> keyComparator,
+                                           BiPredicate<? super T, ? super T> equivalence, ListDiff.Listener<? super T> listener) {
+        if (keyFn == null || keyComparator == null || listener == null) return;
+        ListDiff.sorted(oldSource == null ? null : oldSource.iterator(), newSource == null ? null : newSource.iterator(),
+                keyFn, keyComparator, equivalence, listener);
     }
 
     /**
@@ -243,18 +695,36 @@ public class ListUtil {
         if (isEmpty(t1)) return emptyList();
         if (isEmpty(t2)) return emptyList();
 
-        List<T> result = new ArrayList<>();
-        for (T c : t1) {
-            for (T v : t2) {
-                if (c != null && c.equals(v) && !result.contains(c)) result.add(c);
-            }
-        }
-        return result;
+        List<T> r = SetAlgebra.bitmapIntersection(t1, t2);
+        if (r != null) return r;
+        return SetAlgebra.intersection(t1, t2, Function.identity());
+    }
+
+    /**
+     * 按key取交集，返回t1中key也出现在t2中的元素，key相同的只保留首个
+     *
+     * @param t1    集合1
+     * @param t2    集合2
+     * @param keyFn key提取函数
+     * @param <T>   泛型
+     * @param <K>   key类型
+     * @return 两集合按key的交集
+     */
+    public static <T, K> List<T> intersectionBy(List<T> t1, List<T> t2, Function<? super T, ? extends K> keyFn) {
+        if (keyFn == null) return intersection(t1, t2);
+        if (isEmpty(t1)) return emptyList();
+        if (isEmpty(t2)) return emptyList();
+
+        return SetAlgebra.intersection(t1, t2, keyFn);
     }
 
     public static <T> boolean existIntersection(List<T> t1, List<T> t2) {
         if (isEmpty(t1) || isEmpty(t2)) return false;
 
+        // 大的整数集合使用压缩位图
+        Boolean intersects = SetAlgebra.bitmapIntersects(t1, t2);
+        if (intersects != null) return intersects;
+
         // 将较小的集合转换为Set以提高查找效率
         List<T> smaller = t1.size() <= t2.size() ? t1 : t2;
         List<T> larger = t1.size() <= t2.size() ? t2 : t1;
@@ -280,13 +750,36 @@ public class ListUtil {
     public static <T> List<T> deDuplicate(List<T> source) {
         if (isEmpty(source)) return source;
 
-        List<T> r = new ArrayList<>();
-        for (T s : source) {
-            if (!r.contains(s)) {
-                r.add(s);
-            }
-        }
-        return r;
+        return SetAlgebra.deDuplicate(source, Function.identity());
+    }
+
+    /**
+     * 按key去重，保留key首次出现的元素
+     *
+     * @param source 原集合
+     * @param keyFn  key提取函数
+     * @param <T>    泛型
+     * @param <K>    key类型
+     * @return 去重后的集合
+     */
+    public static <T, K> List<T> deDuplicateBy(List<T> source, Function<? super T, ? extends K> keyFn) {
+        if (isEmpty(source)) return source;
+        if (keyFn == null) return deDuplicate(source);
+
+        return SetAlgebra.deDuplicate(source, keyFn);
+    }
+
+    /**
+     * 复制为自动建立哈希索引的集合，在循环中反复调用contains/like时使用
+     *
+     * @param c   集合
+     * @param <T> 泛型
+     * @return 可修改的IndexedList
+     * @see IndexedList
+     */
+    public static <T> IndexedList<T> indexed(Collection<? extends T> c) {
+        if (isEmpty(c)) return new IndexedList<>();
+        return new IndexedList<>(c);
     }
 
     /**
@@ -312,6 +805,7 @@ public class ListUtil {
      */
     public static boolean like(List<String> pool, String fish) {
         if (ListUtil.isEmpty(pool) || StringUtil.isEmpty(fish)) return false;
+        if (pool instanceof IndexedList && pool.contains(fish)) return true;
 
         for (String p : pool) {
             if (p == null) continue;
@@ -320,6 +814,19 @@ public class ListUtil {
         return false;
     }
 
+    /**
+     * 集合中是否有元素包含匹配器中的任一关键词，每个元素只扫描一遍
+     *
+     * @param pool    集合
+     * @param matcher 编译好的关键词
+     * @return 是否能模糊匹配上
+     * @see KeywordMatcher
+     */
+    public static boolean like(List<String> pool, KeywordMatcher matcher) {
+        if (ListUtil.isEmpty(pool) || matcher == null) return false;
+        return matcher.containsAny(pool);
+    }
+
     /**
      * 通过连接符连接字符串集合中每个元素
      *
@@ -329,15 +836,84 @@ public class ListUtil {
      */
     public static String join(List<String> list, String joiner) {
         if (isEmpty(list)) return StringUtil.EMPTY;
-        if (joiner == null) joiner = StringUtil.EMPTY;
-        StringBuilder sb = new StringBuilder();
-        for (String li : list) {
-            if (li == null) continue;
-            sb.append(li).append(joiner);
-        }
-        String s = sb.toString();
-        if (!s.isEmpty() && s.endsWith(joiner)) s = s.substring(0, s.length() - joiner.length());
-        return s;
+
+        return Joiner.on(joiner).skipNulls().join(list);
+    }
+
+    /**
+     * 基本类型集合取交集，去重并保留首次出现的顺序
+     */
+    public static IntList intersection(IntList t1, IntList t2) {
+        if (t1 == null || t2 == null) return new IntList();
+        return t1.intersect(t2);
+    }
+
+    /**
+     * 基本类型集合取差集，先t1后t2，去重并保留首次出现的顺序；
+     * 有一边为null或空时与difference(List, List)一样，直接返回另一边
+     */
+    public static IntList difference(IntList t1, IntList t2) {
+        if (t1 == null || t1.isEmpty()) return t2 == null || t2.isEmpty() ? new IntList() : t2;
+        if (t2 == null || t2.isEmpty()) return t1;
+        return t1.difference(t2);
+    }
+
+    /**
+     * 基本类型集合去重
+     */
+    public static IntList deDuplicate(IntList source) {
+        if (source == null) return new IntList();
+        return source.distinct();
+    }
+
+    /**
+     * 基本类型集合按指定长度分段
+     */
+    public static List<IntList> splitBySize(IntList source, int size) {
+        if (source == null) return Collections.emptyList();
+        return source.chunk(size);
+    }
+
+    public static boolean contains(IntList list, int ele) {
+        return list != null && list.contains(ele);
+    }
+
+    /**
+     * 基本类型集合取交集，去重并保留首次出现的顺序
+     */
+    public static LongList intersection(LongList t1, LongList t2) {
+        if (t1 == null || t2 == null) return new LongList();
+        return t1.intersect(t2);
+    }
+
+    /**
+     * 基本类型集合取差集，先t1后t2，去重并保留首次出现的顺序；
+     * 有一边为null或空时与difference(List, List)一样，直接返回另一边
+     */
+    public static LongList difference(LongList t1, LongList t2) {
+        if (t1 == null || t1.isEmpty()) return t2 == null || t2.isEmpty() ? new LongList() : t2;
+        if (t2 == null || t2.isEmpty()) return t1;
+        return t1.difference(t2);
+    }
+
+    /**
+     * 基本类型集合去重
+     */
+    public static LongList deDuplicate(LongList source) {
+        if (source == null) return new LongList();
+        return source.distinct();
+    }
+
+    /**
+     * 基本类型集合按指定长度分段
+     */
+    public static List<LongList> splitBySize(LongList source, int size) {
+        if (source == null) return Collections.emptyList();
+        return source.chunk(size);
+    }
+
+    public static boolean contains(LongList list, long ele) {
+        return list != null && list.contains(ele);
     }
 
     /**
@@ -364,12 +940,33 @@ public class ListUtil {
         return list.get(index);
     }
 
+    /**
+     * 创建惰性序列，filter、map、limit等操作在终止操作时一次遍历完成
+     *
+     * @see Seq
+     */
+    public static <T> Seq<T> seq(Collection<T> source) {
+        return Seq.of(source);
+    }
+
     /**
      * 过滤List中满足条件的元素
      */
     public static <T> List<T> filter(List<T> list, Predicate<T> predicate) {
         if (isEmpty(list) || predicate == null) return emptyList();
-        return list.stream().filter(predicate).collect(Collectors.toList());
+
+        ArrayList<T> r = new ArrayList<>(list.size());
+        if (list instanceof RandomAccess) {
+            for (int i = 0, n = list.size(); i < n; i++) {
+                T t = list.get(i);
+                if (predicate.test(t)) r.add(t);
+            }
+        } else {
+            for (T t : list) {
+                if (predicate.test(t)) r.add(t);
+            }
+        }
+        return trimFiltered(r, list.size());
     }
 
     /**
@@ -377,7 +974,18 @@ public class ListUtil {
      */
     public static <T, R> List<R> map(List<T> list, Function<T, R> mapper) {
         if (isEmpty(list) || mapper == null) return emptyList();
-        return list.stream().map(mapper).collect(Collectors.toList());
+
+        List<R> r = new ArrayList<>(list.size());
+        if (list instanceof RandomAccess) {
+            for (int i = 0, n = list.size(); i < n; i++) {
+                r.add(mapper.apply(list.get(i)));
+            }
+        } else {
+            for (T t : list) {
+                r.add(mapper.apply(t));
+            }
+        }
+        return r;
     }
 
     /**
@@ -385,7 +993,238 @@ public class ListUtil {
      */
     public static <T, R> List<R> mapAndDistinct(List<T> list, Function<T, R> mapper) {
         if (isEmpty(list) || mapper == null) return emptyList();
-        return list.stream().map(mapper).distinct().collect(Collectors.toList());
+
+        Set<R> seen = new HashSet<>(MapUtil.capacity(list.size()));
+        List<R> r = new ArrayList<>();
+        for (T t : list) {
+            R v = mapper.apply(t);
+            if (seen.add(v)) r.add(v);
+        }
+        return r;
+    }
+
+    /**
+     * 估算不同key的个数，不生成去重后的集合；内存固定，误差约0.8%，较少时基本准确
+     *
+     * @param list  集合
+     * @param keyFn key，哈希方式见HashUtil.hash64(Object)
+     * @param <T>   泛型
+     * @param <K>   key类型
+     * @return 估算的不同key个数
+     * @see HyperLogLog
+     */
+    public static <T, K> long approxDistinctCount(Collection<T> list, Function<? super T, ? extends K> keyFn) {
+        if (isEmpty(list) || keyFn == null) return 0;
+
+        HyperLogLog hll = new HyperLogLog();
+        for (T t : list) {
+            hll.addHash(HashUtil.hash64(keyFn.apply(t)));
+        }
+        return hll.cardinality();
+    }
+
+    /**
+     * 估算不同key个数的收集器，可用于并行流；需要跨分区合并时使用HyperLogLog.collector
+     */
+    public static <T, K> Collector<T, ?, Long> approxDistinctCounting(Function<? super T, ? extends K> keyFn) {
+        if (keyFn == null) throw new IllegalArgumentException("keyFn must not be null");
+
+        return Collectors.collectingAndThen(HyperLogLog.collector(keyFn), HyperLogLog::cardinality);
+    }
+
+    /**
+     * 按key建立索引，key重复时后面的元素覆盖前面的
+     *
+     * @param list  集合
+     * @param keyFn key提取函数
+     * @param <T>   泛型
+     * @param <K>   key类型
+     * @return 按集合长度预分配容量的HashMap
+     */
+    public static <T, K> Map<K, T> toMap(Collection<T> list, Function<? super T, ? extends K> keyFn) {
+        return toMap(list, keyFn, Function.identity(), MapUtil::newHashMap);
+    }
+
+    /**
+     * 按key建立key到value的映射，key重复时后面的值覆盖前面的
+     */
+    public static <T, K, V> Map<K, V> toMap(Collection<T> list, Function<? super T, ? extends K> keyFn,
+                                            Function<? super T, ? extends V> valueFn) {
+        return toMap(list, keyFn, valueFn, MapUtil::newHashMap);
+    }
+
+    /**
+     * 同toMap，使用指定的Map
+     *
+     * @param mapFactory 按预计元素个数创建Map，如MapUtil::newLinkedHashMap、MapUtil::newIdentityHashMap、
+     *                   n -&gt; MapUtil.newEnumMap(Xxx.class)
+     */
+    public static <T, K, V, M extends Map<K, V>> M toMap(Collection<T> list, Function<? super T, ? extends K> keyFn,
+                                                         Function<? super T, ? extends V> valueFn, IntFunction<M> mapFactory) {
+        if (mapFactory == null) throw new IllegalArgumentException("mapFactory must not be null");
+        M r = mapFactory.apply(isEmpty(list) ? 0 : list.size());
+        if (isEmpty(list) || keyFn == null || valueFn == null) return r;
+
+        for (T t : list) {
+            r.put(keyFn.apply(t), valueFn.apply(t));
+        }
+        return r;
+    }
+
+    /**
+     * 按key分组，组内保持原顺序
+     *
+     * @param list  集合
+     * @param keyFn 分组key
+     * @param <T>   泛型
+     * @param <K>   key类型
+     * @return key到组内元素的HashMap
+     */
+    public static <T, K> Map<K, List<T>> groupBy(Collection<T> list, Function<? super T, ? extends K> keyFn) {
+        return groupBy(list, keyFn, MapUtil::newHashMap);
+    }
+
+    /**
+     * 同groupBy，使用指定的Map；预计元素个数为集合长度，但不超过GROUP_PRESIZE_LIMIT
+     */
+    public static <T, K, M extends Map<K, List<T>>> M groupBy(Collection<T> list, Function<? super T, ? extends K> keyFn,
+                                                              IntFunction<M> mapFactory) {
+        if (mapFactory == null) throw new IllegalArgumentException("mapFactory must not be null");
+        M r = mapFactory.apply(groupPresize(list));
+        if (isEmpty(list) || keyFn == null) return r;
+
+        for (T t : list) {
+            K k = keyFn.apply(t);
+            List<T> group = r.get(k);
+            if (group == null) {
+                group = new ArrayList<>();
+                r.put(k, group);
+            }
+            group.add(t);
+        }
+        return r;
+    }
+
+    /**
+     * 按两级key分组，组内保持原顺序
+     * <p>
+     * 先按第一级key分组，再按每组的长度预分配第二级的Map
+     */
+    public static <T, K1, K2> Map<K1, Map<K2, List<T>>> groupBy2(Collection<T> list, Function<? super T, ? extends K1> keyFn1,
+                                                                 Function<? super T, ? extends K2> keyFn2) {
+        if (isEmpty(list) || keyFn1 == null || keyFn2 == null) return MapUtil.newHashMap(0);
+
+        Map<K1, List<T>> outer = groupBy(list, keyFn1);
+        Map<K1, Map<K2, List<T>>> r = MapUtil.newHashMap(outer.size());
+        for (Map.Entry<K1, List<T>> e : outer.entrySet()) {
+            r.put(e.getKey(), groupBy(e.getValue(), keyFn2));
+        }
+        return r;
+    }
+
+    /**
+     * 统计每个key出现的次数
+     *
+     * @param list  集合
+     * @param keyFn key提取函数
+     * @param <T>   泛型
+     * @param <K>   key类型
+     * @return key到次数的HashMap
+     */
+    public static <T, K> Map<K, Integer> countBy(Collection<T> list, Function<? super T, ? extends K> keyFn) {
+        return countBy(list, keyFn, MapUtil::newHashMap);
+    }
+
+    /**
+     * 同countBy，使用指定的Map，key按该Map的规则区分（如IdentityHashMap按引用）
+     * <p>
+     * 计数时Map中的值是key的编号，次数记在int数组中，每个key只装箱两次；最后把编号换成次数
+     */
+    public static <T, K, M extends Map<K, Integer>> M countBy(Collection<T> list, Function<? super T, ? extends K> keyFn,
+                                                              IntFunction<M> mapFactory) {
+        if (mapFactory == null) throw new IllegalArgumentException("mapFactory must not be null");
+        M r = mapFactory.apply(groupPresize(list));
+        if (isEmpty(list) || keyFn == null) return r;
+
+        int[] counts = new int[Math.max(16, groupPresize(list))];
+        int keys = 0;
+        for (T t : list) {
+            K k = keyFn.apply(t);
+            Integer slot = r.get(k);
+            if (slot == null) {
+                if (keys == counts.length) counts = Arrays.copyOf(counts, keys * 2);
+                slot = keys++;
+                r.put(k, slot);
+            }
+            counts[slot]++;
+        }
+        for (Map.Entry<K, Integer> e : r.entrySet()) {
+            e.setValue(counts[e.getValue()]);
+        }
+        return r;
+    }
+
+    private static int groupPresize(Collection<?> list) {
+        return isEmpty(list) ? 0 : Math.min(list.size(), GROUP_PRESIZE_LIMIT);
+    }
+
+    /**
+     * 过滤并转换，一次遍历完成，不生成中间集合
+     */
+    public static <T, R> List<R> filterAndMap(List<T> list, Predicate<T> predicate, Function<T, R> mapper) {
+        if (isEmpty(list) || predicate == null || mapper == null) return emptyList();
+
+        ArrayList<R> r = new ArrayList<>(list.size());
+        for (T t : list) {
+            if (predicate.test(t)) r.add(mapper.apply(t));
+        }
+        return trimFiltered(r, list.size());
+    }
+
+    /**
+     * 过滤结果按原集合长度预分配，留下的不到一半时缩容，避免大数组随小结果一直存活
+     */
+    private static <T> List<T> trimFiltered(ArrayList<T> r, int capacity) {
+        if (r.size() < capacity / 2) r.trimToSize();
+        return r;
+    }
+
+    /**
+     * 并行转换，结果顺序与原集合一致；元素较少时顺序执行
+     * <p>
+     * 使用ForkJoinPool.commonPool()，适合CPU密集的转换；mapper需要线程安全
+     */
+    public static <T, R> List<R> parallelMap(List<T> list, Function<T, R> mapper) {
+        return parallelMap(list, mapper, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 在指定线程池中并行转换，结果顺序与原集合一致；元素较少时顺序执行
+     */
+    public static <T, R> List<R> parallelMap(List<T> list, Function<T, R> mapper, ForkJoinPool pool) {
+        if (isEmpty(list) || mapper == null) return emptyList();
+        if (list.size() < ParallelOps.PARALLEL_THRESHOLD || pool == null) return map(list, mapper);
+
+        return ParallelOps.map(list, mapper, pool);
+    }
+
+    /**
+     * 并行过滤，结果顺序与原集合一致；元素较少时顺序执行
+     * <p>
+     * 使用ForkJoinPool.commonPool()；predicate需要线程安全
+     */
+    public static <T> List<T> parallelFilter(List<T> list, Predicate<T> predicate) {
+        return parallelFilter(list, predicate, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 在指定线程池中并行过滤，结果顺序与原集合一致；元素较少时顺序执行
+     */
+    public static <T> List<T> parallelFilter(List<T> list, Predicate<T> predicate, ForkJoinPool pool) {
+        if (isEmpty(list) || predicate == null) return emptyList();
+        if (list.size() < ParallelOps.PARALLEL_THRESHOLD || pool == null) return filter(list, predicate);
+
+        return ParallelOps.filter(list, predicate, pool);
     }
 
 }
\ No newline at end of file
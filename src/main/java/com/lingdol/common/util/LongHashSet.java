@@ -0,0 +1,69 @@
+package com.lingdol.common.util;
+
+/**
+ * 基本类型long的开放寻址哈希集合，供IntList/LongList的集合运算使用，不装箱
+ */
+final class LongHashSet {
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    /**
+     * 0作为空槽标记，单独记录是否包含0
+     */
+    private boolean hasZero;
+
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return 集合中原本不存在该元素时返回true
+     */
+    boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            return true;
+        }
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) return false;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        if (++size * 2 > keys.length) rehash();
+        return true;
+    }
+
+    boolean contains(long key) {
+        if (key == 0) return hasZero;
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] old = keys;
+        keys = new long[old.length << 1];
+        mask = keys.length - 1;
+        for (long k : old) {
+            if (k == 0) continue;
+            int i = slot(k);
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = k;
+        }
+    }
+}
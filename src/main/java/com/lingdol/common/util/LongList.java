@@ -0,0 +1,306 @@
+package com.lingdol.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * 基本类型long的可变长集合，元素直接保存在long[]中，不装箱
+ * <p>
+ * 记录元素是否有序，有序时contains、交集、差集、去重都走二分查找或归并；非线程安全
+ */
+public class LongList {
+
+    private static final long[] EMPTY_ELEMENTS = {};
+
+    private long[] elements;
+    private int size;
+    /**
+     * 已知元素按升序排列
+     */
+    private boolean sorted = true;
+
+    public LongList() {
+        this.elements = EMPTY_ELEMENTS;
+    }
+
+    public LongList(int capacity) {
+        this.elements = capacity > 0 ? new long[capacity] : EMPTY_ELEMENTS;
+    }
+
+    private LongList(long[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+        this.sorted = checkSorted(elements, size);
+    }
+
+    /**
+     * 直接使用数组作为存储，不复制；集合的修改在扩容前会反映到数组中。
+     * 包装后不要再直接修改数组，否则有序标记可能失效
+     */
+    public static LongList wrap(long... elements) {
+        if (elements == null) return new LongList();
+        return new LongList(elements, elements.length);
+    }
+
+    /**
+     * 复制数组中的元素
+     */
+    public static LongList of(long... elements) {
+        if (elements == null) return new LongList();
+        return new LongList(elements.clone(), elements.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public void set(int index, long value) {
+        checkIndex(index);
+        elements[index] = value;
+        if (sorted && ((index > 0 && elements[index - 1] > value) || (index < size - 1 && value > elements[index + 1]))) {
+            sorted = false;
+        }
+    }
+
+    public void add(long value) {
+        if (size == elements.length) grow(size + 1);
+        if (sorted && size > 0 && elements[size - 1] > value) sorted = false;
+        elements[size++] = value;
+    }
+
+    public void addAll(LongList other) {
+        if (other == null || other.size == 0) return;
+        if (size + other.size > elements.length) grow(size + other.size);
+        if (sorted && (!other.sorted || (size > 0 && elements[size - 1] > other.elements[0]))) sorted = false;
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    public void addAll(long... values) {
+        if (values != null) addAll(wrap(values));
+    }
+
+    public void clear() {
+        size = 0;
+        sorted = true;
+    }
+
+    /**
+     * 原地升序排序
+     */
+    public LongList sort() {
+        if (!sorted) {
+            Arrays.sort(elements, 0, size);
+            sorted = true;
+        }
+        return this;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * 元素第一次出现的位置，不存在时返回-1；有序时使用二分查找
+     */
+    public int indexOf(long value) {
+        if (sorted) {
+            int i = Arrays.binarySearch(elements, 0, size, value);
+            if (i < 0) return -1;
+            while (i > 0 && elements[i - 1] == value) i--;
+            return i;
+        }
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 去重，保留首次出现的顺序
+     */
+    public LongList distinct() {
+        LongList r = new LongList(size);
+        if (sorted) {
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || elements[i] != elements[i - 1]) r.elements[r.size++] = elements[i];
+            }
+            return r;
+        }
+        LongHashSet seen = new LongHashSet(size);
+        for (int i = 0; i < size; i++) {
+            if (seen.add(elements[i])) r.add(elements[i]);
+        }
+        return r;
+    }
+
+    /**
+     * 交集：本集合中也存在于other的元素，去重并保留首次出现的顺序
+     */
+    public LongList intersect(LongList other) {
+        LongList r = new LongList();
+        if (other == null || size == 0 || other.size == 0) return r;
+
+        if (sorted && other.sorted) {
+            int i = 0, j = 0;
+            while (i < size && j < other.size) {
+                long a = elements[i], b = other.elements[j];
+                if (a < b) {
+                    i++;
+                } else if (a > b) {
+                    j++;
+                } else {
+                    if (r.size == 0 || r.elements[r.size - 1] != a) r.add(a);
+                    i++;
+                }
+            }
+            return r;
+        }
+
+        LongHashSet set = other.toSet();
+        LongHashSet emitted = new LongHashSet(Math.min(size, other.size));
+        for (int i = 0; i < size; i++) {
+            long v = elements[i];
+            if (set.contains(v) && emitted.add(v)) r.add(v);
+        }
+        return r;
+    }
+
+    /**
+     * 差集：只在其中一个集合中出现的元素，先本集合后other，去重并保留首次出现的顺序
+     */
+    public LongList difference(LongList other) {
+        if (other == null || other.size == 0) return distinct();
+        if (size == 0) return other.distinct();
+
+        LongList r = new LongList();
+        LongHashSet mine = toSet();
+        LongHashSet theirs = other.toSet();
+        LongHashSet emitted = new LongHashSet(16);
+        for (int i = 0; i < size; i++) {
+            long v = elements[i];
+            if (!theirs.contains(v) && emitted.add(v)) r.add(v);
+        }
+        for (int i = 0; i < other.size; i++) {
+            long v = other.elements[i];
+            if (!mine.contains(v) && emitted.add(v)) r.add(v);
+        }
+        return r;
+    }
+
+    /**
+     * 按指定长度分段，每段复制为新的集合
+     */
+    public List<LongList> chunk(int chunkSize) {
+        if (chunkSize < 1 || size == 0) return new ArrayList<>();
+
+        List<LongList> r = new ArrayList<>(size / chunkSize + 1);
+        for (int start = 0; start < size; start += chunkSize) {
+            int end = Math.min(size, start + chunkSize);
+            LongList part = new LongList(Arrays.copyOfRange(elements, start, end), end - start);
+            r.add(part);
+        }
+        return r;
+    }
+
+    /**
+     * 底层数组，不复制；长度可能大于size，只有前size个元素有效
+     */
+    public long[] elements() {
+        return elements;
+    }
+
+    /**
+     * 复制为长度等于size的数组
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * 转换为装箱集合
+     */
+    public List<Long> toList() {
+        List<Long> r = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            r.add(elements[i]);
+        }
+        return r;
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(elements, 0, size);
+    }
+
+    private LongHashSet toSet() {
+        LongHashSet set = new LongHashSet(size);
+        for (int i = 0; i < size; i++) {
+            set.add(elements[i]);
+        }
+        return set;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, elements.length + (elements.length >> 1));
+        elements = Arrays.copyOf(elements, Math.max(capacity, 10));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private static boolean checkSorted(long[] elements, int size) {
+        for (int i = 1; i < size; i++) {
+            if (elements[i - 1] > elements[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongList)) return false;
+        LongList other = (LongList) o;
+        if (size != other.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (elements[i] != other.elements[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < size; i++) {
+            h = 31 * h + (int) (elements[i] ^ (elements[i] >>> 32));
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(size * 4 + 2).append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(elements[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -1,6 +1,9 @@
 package com.lingdol.common.util;
 
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -18,6 +21,43 @@ public class MapUtil {
         return new HashMap<>();
     }
 
+    /**
+     * 按预计元素个数计算HashMap/HashSet的初始容量，放入expected个元素前不会扩容；负数按0处理
+     */
+    public static int capacity(int expected) {
+        if (expected < 3) return Math.max(0, expected) + 1;
+        if (expected >= (1 << 30)) return Integer.MAX_VALUE;
+        return (int) (expected / 0.75f + 1.0f);
+    }
+
+    /**
+     * 按预计元素个数创建HashMap，放入expected个元素前不会扩容
+     */
+    public static <K, V> HashMap<K, V> newHashMap(int expected) {
+        return new HashMap<>(capacity(expected));
+    }
+
+    /**
+     * 按预计元素个数创建LinkedHashMap，保持插入顺序，放入expected个元素前不会扩容
+     */
+    public static <K, V> LinkedHashMap<K, V> newLinkedHashMap(int expected) {
+        return new LinkedHashMap<>(capacity(expected));
+    }
+
+    /**
+     * 按预计元素个数创建IdentityHashMap，key按==比较，适合key没有重写equals或比较代价高的情况
+     */
+    public static <K, V> IdentityHashMap<K, V> newIdentityHashMap(int expected) {
+        return new IdentityHashMap<>(Math.max(0, expected));
+    }
+
+    /**
+     * 创建EnumMap，key为枚举时按ordinal存放在数组中，不需要哈希
+     */
+    public static <K extends Enum<K>, V> EnumMap<K, V> newEnumMap(Class<K> keyType) {
+        return new EnumMap<>(keyType);
+    }
+
     public static <K, V> int size(Map<K, V> map) {
         return map == null ? 0 : map.size();
     }
@@ -42,7 +82,7 @@ public class MapUtil {
      * 合并两个Map
      */
     public static <K, V> Map<K, V> merge(Map<K, V> map1, Map<K, V> map2) {
-        Map<K, V> result = new HashMap<>();
+        Map<K, V> result = newHashMap(size(map1) + size(map2));
         if (isNotEmpty(map1)) result.putAll(map1);
         if (isNotEmpty(map2)) result.putAll(map2);
         return result;
@@ -0,0 +1,430 @@
+package com.lingdol.common.util;
+
+import java.math.BigDecimal;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/**
+ * 不抛异常的数字解析：校验和解析一遍完成，失败时返回默认值或空的Optional，不创建异常
+ * <p>
+ * 整数与Integer.parseInt/Long.parseLong的语法一致（不去空白，数字按Character.digit识别）；
+ * 浮点数与Double.parseDouble一致（去掉首尾空白，支持NaN、Infinity、十六进制、f/d后缀），
+ * 有效数字不超过15位、10的指数不超过22时直接计算（结果精确），其余情况校验通过后再交给Double.parseDouble。
+ * 返回基本类型的方法解析成功时不创建对象。每个方法都有CharSequence和char[]区间的版本
+ */
+public class NumberUtil {
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long[] LONG_POW10 = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+            10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+            1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+    /**
+     * 能精确转为double的最大有效数字位数
+     */
+    private static final int FAST_DIGITS = 15;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long INT_FAILED = Long.MIN_VALUE;
+
+    // ------------------------------------------------------------- 校验
+
+    /**
+     * 是否能被Double.parseDouble解析，null返回false
+     */
+    public static boolean isNumber(CharSequence s) {
+        return s != null && isDoubleSyntax(s, 0, s.length());
+    }
+
+    /**
+     * 是否能被Integer.parseInt解析，null返回false
+     */
+    public static boolean isInteger(CharSequence s) {
+        return s != null && parseInteger(s, 0, s.length(), Integer.MIN_VALUE, INT_FAILED) != INT_FAILED;
+    }
+
+    // ------------------------------------------------------------- int
+
+    public static int tryParseInt(CharSequence s, int defaultValue) {
+        return s == null ? defaultValue : tryParseInt(s, 0, s.length(), defaultValue);
+    }
+
+    public static int tryParseInt(CharSequence s, int from, int to, int defaultValue) {
+        if (s == null || !validRange(s.length(), from, to)) return defaultValue;
+        long r = parseInteger(s, from, to, Integer.MIN_VALUE, INT_FAILED);
+        return r == INT_FAILED ? defaultValue : (int) r;
+    }
+
+    public static int tryParseInt(char[] cs, int from, int to, int defaultValue) {
+        if (cs == null || !validRange(cs.length, from, to)) return defaultValue;
+        long r = parseInteger(cs, from, to, Integer.MIN_VALUE, INT_FAILED);
+        return r == INT_FAILED ? defaultValue : (int) r;
+    }
+
+    public static OptionalInt tryParseInt(CharSequence s) {
+        if (s == null) return OptionalInt.empty();
+        long r = parseInteger(s, 0, s.length(), Integer.MIN_VALUE, INT_FAILED);
+        return r == INT_FAILED ? OptionalInt.empty() : OptionalInt.of((int) r);
+    }
+
+    // ------------------------------------------------------------- long
+
+    public static long tryParseLong(CharSequence s, long defaultValue) {
+        return s == null ? defaultValue : tryParseLong(s, 0, s.length(), defaultValue);
+    }
+
+    public static long tryParseLong(CharSequence s, int from, int to, long defaultValue) {
+        if (s == null || !validRange(s.length(), from, to)) return defaultValue;
+        return parseInteger(s, from, to, Long.MIN_VALUE, defaultValue);
+    }
+
+    public static long tryParseLong(char[] cs, int from, int to, long defaultValue) {
+        if (cs == null || !validRange(cs.length, from, to)) return defaultValue;
+        return parseInteger(cs, from, to, Long.MIN_VALUE, defaultValue);
+    }
+
+    public static OptionalLong tryParseLong(CharSequence s) {
+        if (s == null) return OptionalLong.empty();
+        // 结果等于默认值时无法区分是否成功，换一个默认值再解析一次；只有"0"和非法输入会走到第二次
+        long r = parseInteger(s, 0, s.length(), Long.MIN_VALUE, 0L);
+        if (r != 0 || parseInteger(s, 0, s.length(), Long.MIN_VALUE, 1L) == 0) return OptionalLong.of(r);
+        return OptionalLong.empty();
+    }
+
+    // ------------------------------------------------------------- double
+
+    public static double tryParseDouble(CharSequence s, double defaultValue) {
+        return s == null ? defaultValue : tryParseDouble(s, 0, s.length(), defaultValue);
+    }
+
+    public static double tryParseDouble(CharSequence s, int from, int to, double defaultValue) {
+        if (s == null || !validRange(s.length(), from, to)) return defaultValue;
+        return parseDouble(s, from, to, defaultValue);
+    }
+
+    public static double tryParseDouble(char[] cs, int from, int to, double defaultValue) {
+        if (cs == null || !validRange(cs.length, from, to)) return defaultValue;
+        return parseDouble(cs, from, to, defaultValue);
+    }
+
+    public static OptionalDouble tryParseDouble(CharSequence s) {
+        if (s == null) return OptionalDouble.empty();
+        double r = parseDouble(s, 0, s.length(), Double.NaN);
+        // NaN既可能是失败，也可能是输入"NaN"
+        if (Double.isNaN(r) && !isDoubleSyntax(s, 0, s.length())) return OptionalDouble.empty();
+        return OptionalDouble.of(r);
+    }
+
+    // ------------------------------------------------------------- 金额
+
+    /**
+     * 按BigDecimal(String)的语法解析（只识别ASCII数字），非法时返回null；不超过18位有效数字时不经过字符串
+     */
+    public static BigDecimal parseDecimal(CharSequence s) {
+        return s == null ? null : decimal(s, 0, s.length());
+    }
+
+    public static BigDecimal parseDecimal(CharSequence s, int from, int to) {
+        return s == null || !validRange(s.length(), from, to) ? null : decimal(s, from, to);
+    }
+
+    public static BigDecimal parseDecimal(char[] cs, int from, int to) {
+        return cs == null || !validRange(cs.length, from, to) ? null : decimal(cs, from, to);
+    }
+
+    /**
+     * 解析金额等定点数，返回按scale放大后的整数，例如parseUnscaled("12.3", 2, -1)返回1230
+     * <p>
+     * 语法为可选的正负号、整数部分、可选的小数部分（不支持指数）；
+     * 非法、溢出、或小数位多于scale且多出的不全为0时返回默认值
+     *
+     * @param scale 小数位数，[0, 18]
+     */
+    public static long parseUnscaled(CharSequence s, int scale, long defaultValue) {
+        return s == null ? defaultValue : parseUnscaled(s, 0, s.length(), scale, defaultValue);
+    }
+
+    public static long parseUnscaled(CharSequence s, int from, int to, int scale, long defaultValue) {
+        if (s == null || !validRange(s.length(), from, to)) return defaultValue;
+        return unscaled(s, from, to, scale, defaultValue);
+    }
+
+    public static long parseUnscaled(char[] cs, int from, int to, int scale, long defaultValue) {
+        if (cs == null || !validRange(cs.length, from, to)) return defaultValue;
+        return unscaled(cs, from, to, scale, defaultValue);
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    private static boolean validRange(int length, int from, int to) {
+        return from >= 0 && from <= to && to <= length;
+    }
+
+    /**
+     * src为CharSequence或char[]，两种来源共用同一套解析，不需要包装对象
+     */
+    private static char charAt(Object src, int i) {
+        return src instanceof char[] ? ((char[]) src)[i] : ((CharSequence) src).charAt(i);
+    }
+
+    private static String substring(Object src, int from, int to) {
+        return src instanceof char[] ? new String((char[]) src, from, to - from) : ((CharSequence) src).subSequence(from, to).toString();
+    }
+
+    /**
+     * 与Long.parseLong相同的算法：按负数累加，结果不小于min，不大于-(min + 1)
+     */
+    private static long parseInteger(Object src, int from, int to, long min, long failed) {
+        if (from >= to) return failed;
+        int i = from;
+        boolean negative = false;
+        long limit = min + 1;
+        char first = charAt(src, i);
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = min;
+            } else if (first != '+') {
+                return failed;
+            }
+            if (to - from == 1) return failed;
+            i++;
+        }
+        long multmin = limit / 10;
+        long result = 0;
+        while (i < to) {
+            int digit = Character.digit(charAt(src, i++), 10);
+            if (digit < 0 || result < multmin) return failed;
+            result *= 10;
+            if (result < limit + digit) return failed;
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static double parseDouble(Object src, int from, int to, double failed) {
+        // 去掉首尾空白，与Double.parseDouble一致
+        while (from < to && charAt(src, from) <= ' ') from++;
+        while (to > from && charAt(src, to - 1) <= ' ') to--;
+        if (from >= to) return failed;
+
+        int i = from;
+        boolean negative = false;
+        char c = charAt(src, i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            if (++i >= to) return failed;
+            c = charAt(src, i);
+        }
+        if (c == 'N' || c == 'I' || (c == '0' && i + 1 < to && (charAt(src, i + 1) | 0x20) == 'x')) {
+            // NaN、Infinity、十六进制，校验后交给Double.parseDouble
+            return !isDoubleSyntax(src, from, to) ? failed : Double.parseDouble(substring(src, from, to));
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        int dropped = 0;
+        boolean truncated = false;
+        boolean any = false;
+        boolean dot = false;
+        for (; i < to; i++) {
+            c = charAt(src, i);
+            if (c >= '0' && c <= '9') {
+                any = true;
+                int d = c - '0';
+                if (mantissa == 0 && d == 0) {
+                    if (dot) scale++;
+                } else if (digits < MAX_LONG_DIGITS) {
+                    mantissa = mantissa * 10 + d;
+                    digits++;
+                    if (dot) scale++;
+                } else {
+                    if (d != 0) truncated = true;
+                    if (!dot) dropped++;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (!any) return failed;
+
+        long exponent = 0;
+        if (i < to && (charAt(src, i) | 0x20) == 'e') {
+            if (++i >= to) return failed;
+            boolean expNegative = false;
+            c = charAt(src, i);
+            if (c == '-' || c == '+') {
+                expNegative = c == '-';
+                if (++i >= to) return failed;
+            }
+            boolean expAny = false;
+            for (; i < to; i++) {
+                c = charAt(src, i);
+                if (c < '0' || c > '9') break;
+                expAny = true;
+                // 超出范围的指数只需要知道很大，不再累加
+                if (exponent < 100000) exponent = exponent * 10 + (c - '0');
+            }
+            if (!expAny) return failed;
+            if (expNegative) exponent = -exponent;
+        }
+        if (i < to) {
+            c = charAt(src, i);
+            if (i + 1 != to || (c != 'f' && c != 'F' && c != 'd' && c != 'D')) return failed;
+        }
+
+        if (mantissa == 0) return negative ? -0.0 : 0.0;
+        long e = exponent - scale + dropped;
+        if (!truncated && digits <= FAST_DIGITS && e >= -22 && e <= 22) {
+            // mantissa和10^|e|都能精确表示为double，一次乘除的结果就是正确舍入的值
+            double v = (double) mantissa;
+            v = e >= 0 ? v * POW10[(int) e] : v / POW10[(int) -e];
+            return negative ? -v : v;
+        }
+        return Double.parseDouble(substring(src, from, to));
+    }
+
+    /**
+     * 是否符合Double.parseDouble的语法
+     */
+    private static boolean isDoubleSyntax(Object src, int from, int to) {
+        while (from < to && charAt(src, from) <= ' ') from++;
+        while (to > from && charAt(src, to - 1) <= ' ') to--;
+        int i = from;
+        if (i < to && (charAt(src, i) == '-' || charAt(src, i) == '+')) i++;
+        if (i >= to) return false;
+        if (matches(src, i, to, "NaN") || matches(src, i, to, "Infinity")) return true;
+
+        boolean hex = charAt(src, i) == '0' && i + 1 < to && (charAt(src, i + 1) | 0x20) == 'x';
+        if (hex) i += 2;
+        int radix = hex ? 16 : 10;
+        boolean any = false;
+        boolean dot = false;
+        for (; i < to; i++) {
+            char c = charAt(src, i);
+            if (c == '.' && !dot) {
+                dot = true;
+            } else if (c < 128 && Character.digit(c, radix) >= 0) {
+                any = true;
+            } else {
+                break;
+            }
+        }
+        if (!any) return false;
+        if (i < to && (charAt(src, i) | 0x20) == (hex ? 'p' : 'e')) {
+            i++;
+            if (i < to && (charAt(src, i) == '-' || charAt(src, i) == '+')) i++;
+            int start = i;
+            while (i < to && charAt(src, i) >= '0' && charAt(src, i) <= '9') i++;
+            if (i == start) return false;
+        } else if (hex) {
+            // 十六进制必须有p指数
+            return false;
+        }
+        if (i < to) {
+            char c = charAt(src, i);
+            if (i + 1 != to || (c != 'f' && c != 'F' && c != 'd' && c != 'D')) return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(Object src, int from, int to, String word) {
+        if (to - from != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (charAt(src, from + i) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static BigDecimal decimal(Object src, int from, int to) {
+        int i = from;
+        if (i < to && (charAt(src, i) == '-' || charAt(src, i) == '+')) i++;
+        boolean negative = i > from && charAt(src, from) == '-';
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean any = false;
+        boolean dot = false;
+        for (; i < to; i++) {
+            char c = charAt(src, i);
+            if (c >= '0' && c <= '9') {
+                any = true;
+                if (unscaled != 0 || c != '0') digits++;
+                if (digits <= MAX_LONG_DIGITS) unscaled = unscaled * 10 + (c - '0');
+                if (dot) scale++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (!any) return null;
+        long exponent = 0;
+        if (i < to && (charAt(src, i) | 0x20) == 'e') {
+            if (++i >= to) return null;
+            boolean expNegative = false;
+            char c = charAt(src, i);
+            if (c == '-' || c == '+') {
+                expNegative = c == '-';
+                if (++i >= to) return null;
+            }
+            int start = i;
+            for (; i < to; i++) {
+                c = charAt(src, i);
+                if (c < '0' || c > '9') break;
+                if (exponent <= Integer.MAX_VALUE) exponent = exponent * 10 + (c - '0');
+            }
+            if (i == start) return null;
+            if (expNegative) exponent = -exponent;
+        }
+        if (i < to) return null;
+        long newScale = scale - exponent;
+        if (newScale < Integer.MIN_VALUE || newScale > Integer.MAX_VALUE) return null;
+        if (digits <= MAX_LONG_DIGITS) return BigDecimal.valueOf(negative ? -unscaled : unscaled, (int) newScale);
+        return new BigDecimal(substring(src, from, to));
+    }
+
+    private static long unscaled(Object src, int from, int to, int scale, long failed) {
+        if (scale < 0 || scale > MAX_LONG_DIGITS) throw new IllegalArgumentException("scale must be in [0, 18]: " + scale);
+        int i = from;
+        boolean negative = false;
+        if (i < to && (charAt(src, i) == '-' || charAt(src, i) == '+')) negative = charAt(src, i++) == '-';
+        long result = 0;
+        int fraction = 0;
+        boolean any = false;
+        boolean dot = false;
+        for (; i < to; i++) {
+            char c = charAt(src, i);
+            if (c == '.' && !dot) {
+                dot = true;
+                continue;
+            }
+            if (c < '0' || c > '9') return failed;
+            any = true;
+            if (dot && fraction == scale) {
+                // 多出的小数位只能是0
+                if (c != '0') return failed;
+                continue;
+            }
+            if (dot) fraction++;
+            // 按负数累加，可以表示Long.MIN_VALUE
+            if (result < Long.MIN_VALUE / 10) return failed;
+            result *= 10;
+            if (result < Long.MIN_VALUE + (c - '0')) return failed;
+            result -= c - '0';
+        }
+        if (!any) return failed;
+        long factor = LONG_POW10[scale - fraction];
+        if (result < Long.MIN_VALUE / factor) return failed;
+        result *= factor;
+        if (!negative && result == Long.MIN_VALUE) return failed;
+        return negative ? result : -result;
+    }
+}
@@ -0,0 +1,118 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * ListUtil的并行转换、过滤实现
+ * <p>
+ * 按下标区间拆分任务：RandomAccess集合直接按下标读取，不复制；其他集合先转成数组。
+ * 转换的结果直接写入结果集合的对应下标；过滤的结果按区间暂存，最后按区间顺序合并。结果顺序与原集合一致
+ */
+final class ParallelOps {
+
+    /**
+     * 元素个数少于该值时顺序执行
+     */
+    static final int PARALLEL_THRESHOLD = 2048;
+
+    /**
+     * 每个任务最少处理的元素个数
+     */
+    static final int MIN_LEAF_SIZE = 256;
+
+    private ParallelOps() {
+    }
+
+    static <T, R> List<R> map(List<T> list, Function<? super T, ? extends R> mapper, ForkJoinPool pool) {
+        List<T> source = randomAccess(list);
+        // 先填满null，各区间用set写入互不重叠的下标，不改变结构，不需要再复制一次
+        List<R> out = new ArrayList<>(Collections.<R>nCopies(source.size(), null));
+        pool.invoke(new RangeAction(0, source.size(), leafSize(source.size(), pool), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out.set(i, mapper.apply(source.get(i)));
+            }
+        }));
+        return out;
+    }
+
+    static <T> List<T> filter(List<T> list, Predicate<? super T> predicate, ForkJoinPool pool) {
+        List<T> source = randomAccess(list);
+        int leaf = leafSize(source.size(), pool);
+        Object[] parts = new Object[source.size() / leaf + 1];
+        pool.invoke(new RangeAction(0, source.size(), leaf, (from, to) -> {
+            List<T> part = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                T t = source.get(i);
+                if (predicate.test(t)) part.add(t);
+            }
+            parts[from / leaf] = part;
+        }));
+
+        int total = 0;
+        for (Object part : parts) {
+            if (part != null) total += ((List<?>) part).size();
+        }
+        List<T> r = new ArrayList<>(total);
+        for (Object part : parts) {
+            if (part != null) r.addAll(ParallelOps.<T>cast(part));
+        }
+        return r;
+    }
+
+    private static <T> List<T> randomAccess(List<T> list) {
+        if (list instanceof RandomAccess) return list;
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) list.toArray();
+        return Arrays.asList(array);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> cast(Object part) {
+        return (List<T>) part;
+    }
+
+    /**
+     * 叶子区间的长度，区间起点都是该长度的整数倍
+     */
+    private static int leafSize(int size, ForkJoinPool pool) {
+        return Math.max(MIN_LEAF_SIZE, size / (pool.getParallelism() * 4) + 1);
+    }
+
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    /**
+     * 将[from, to)按leaf对齐二分，直到区间不超过leaf
+     */
+    private static final class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int leaf;
+        private final RangeBody body;
+
+        RangeAction(int from, int to, int leaf, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leaf) {
+                body.run(from, to);
+                return;
+            }
+            int leaves = (to - from + leaf - 1) / leaf;
+            int mid = from + (leaves / 2) * leaf;
+            invokeAll(new RangeAction(from, mid, leaf, body), new RangeAction(mid, to, leaf, body));
+        }
+    }
+}
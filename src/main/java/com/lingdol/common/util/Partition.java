@@ -0,0 +1,120 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+
+/**
+ * 原集合的分段视图，不复制元素
+ * <p>
+ * 每一段都是原集合subList的只读视图，原集合结构变化后视图失效；
+ * 需要独立的集合时由调用方自行复制
+ */
+class Partition<T> extends AbstractList<List<T>> {
+
+    final List<T> source;
+    /**
+     * 分段个数
+     */
+    final int parts;
+    /**
+     * 每段的基本长度
+     */
+    final int base;
+    /**
+     * 前left段的长度为base+1
+     */
+    final int left;
+
+    private Partition(List<T> source, int parts, int base, int left) {
+        this.source = source;
+        this.parts = parts;
+        this.base = base;
+        this.left = left;
+    }
+
+    /**
+     * 按每段长度分段，最后一段可能不足
+     */
+    static <T> List<List<T>> bySize(List<T> source, int size) {
+        int n = source.size();
+        int parts = n / size + (n % size == 0 ? 0 : 1);
+        return create(source, parts, size, 0);
+    }
+
+    /**
+     * 按段数平均分段，前面的段比后面的段最多多一个元素；元素不足时每段一个元素
+     */
+    static <T> List<List<T>> byNumber(List<T> source, int number) {
+        int n = source.size();
+        int parts = Math.min(number, n);
+        return create(source, parts, n / parts, n % parts);
+    }
+
+    private static <T> List<List<T>> create(List<T> source, int parts, int base, int left) {
+        return source instanceof RandomAccess
+                ? new RandomAccessPartition<>(source, parts, base, left)
+                : new Partition<>(source, parts, base, left);
+    }
+
+    @Override
+    public List<T> get(int index) {
+        if (index < 0 || index >= parts) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + parts);
+        }
+        int start = index * base + Math.min(index, left);
+        int end = Math.min(start + base + (index < left ? 1 : 0), source.size());
+        return Collections.unmodifiableList(source.subList(start, end));
+    }
+
+    @Override
+    public int size() {
+        return parts;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return parts == 0;
+    }
+
+    private static class RandomAccessPartition<T> extends Partition<T> implements RandomAccess {
+        RandomAccessPartition(List<T> source, int parts, int base, int left) {
+            super(source, parts, base, left);
+        }
+    }
+
+    /**
+     * 从迭代器中按固定长度逐段读取，每次只持有一段
+     */
+    static class ChunkIterator<T> implements Iterator<List<T>> {
+
+        private final Iterator<T> source;
+        private final int size;
+        /**
+         * 剩余元素个数，未知时为-1，用于确定每段的初始容量
+         */
+        private int remaining;
+
+        ChunkIterator(Iterator<T> source, int size, int remaining) {
+            this.source = source;
+            this.size = size;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return source.hasNext();
+        }
+
+        @Override
+        public List<T> next() {
+            if (!source.hasNext()) throw new NoSuchElementException();
+
+            int capacity = remaining >= 0 ? Math.min(size, remaining) : Math.min(size, 16);
+            List<T> chunk = new ArrayList<>(capacity);
+            while (chunk.size() < size && source.hasNext()) {
+                chunk.add(source.next());
+            }
+            if (remaining >= 0) remaining = Math.max(0, remaining - chunk.size());
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.lingdol.common.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 多前缀（或多后缀）匹配，编译为压缩字典树，创建后不可变，可以多线程共用
+ * <p>
+ * 公共部分合并为一条边（radix trie），节点和边保存在连续的数组中，边上的字符共用一个char数组；
+ * 匹配时沿输入走一遍即可得到所有命中的前缀，耗时与前缀个数无关。每个前缀对应一个值，用于路由。
+ * 后缀模式从输入末尾向前匹配
+ * <pre>
+ * PrefixMatcher&lt;String&gt; routes = PrefixMatcher.of(routeMap);
+ * routes.longestMatch("/api/order/1"); // 最长前缀对应的值
+ * </pre>
+ *
+ * @param <V> 值类型
+ */
+public final class PrefixMatcher<V> {
+
+    private static final int ROOT = 0;
+    /**
+     * 子节点个数不超过该值时顺序查找
+     */
+    private static final int LINEAR_SCAN = 8;
+
+    private final boolean suffix;
+    /**
+     * 节点i的子边位于[childOffsets[i], childOffsets[i + 1])，按边的首字符升序
+     */
+    private final int[] childOffsets;
+    private final char[] edgeFirst;
+    private final int[] edgeStart;
+    private final int[] edgeLength;
+    private final int[] edgeTarget;
+    private final char[] labels;
+    /**
+     * 在节点结束的key的下标，没有时为-1
+     */
+    private final int[] nodeKey;
+    private final String[] keys;
+    private final Object[] values;
+
+    private PrefixMatcher(boolean suffix, Builder builder, String[] keys, Object[] values) {
+        this.suffix = suffix;
+        this.keys = keys;
+        this.values = values;
+        int nodes = builder.nodeKey.size();
+        this.nodeKey = new int[nodes];
+        this.childOffsets = new int[nodes + 1];
+        for (int i = 0; i < nodes; i++) {
+            nodeKey[i] = builder.nodeKey.get(i);
+            childOffsets[i + 1] = childOffsets[i] + builder.children.get(i).size();
+        }
+        int edges = childOffsets[nodes];
+        this.edgeFirst = new char[edges];
+        this.edgeStart = new int[edges];
+        this.edgeLength = new int[edges];
+        this.edgeTarget = new int[edges];
+        for (int i = 0; i < nodes; i++) {
+            int p = childOffsets[i];
+            for (int[] e : builder.children.get(i)) {
+                edgeStart[p] = e[0];
+                edgeLength[p] = e[1];
+                edgeTarget[p] = e[2];
+                edgeFirst[p] = builder.labels.charAt(e[0]);
+                p++;
+            }
+        }
+        this.labels = builder.labels.toString().toCharArray();
+    }
+
+    /**
+     * 前缀模式，key为前缀，忽略null；空字符串匹配任何输入
+     */
+    public static <V> PrefixMatcher<V> of(Map<String, ? extends V> prefixes) {
+        return create(prefixes, false);
+    }
+
+    /**
+     * 前缀模式，值为前缀本身
+     */
+    public static PrefixMatcher<String> of(Collection<String> prefixes) {
+        return create(identity(prefixes), false);
+    }
+
+    /**
+     * 后缀模式，key为后缀，忽略null；空字符串匹配任何输入
+     */
+    public static <V> PrefixMatcher<V> suffixes(Map<String, ? extends V> suffixes) {
+        return create(suffixes, true);
+    }
+
+    /**
+     * 后缀模式，值为后缀本身
+     */
+    public static PrefixMatcher<String> suffixes(Collection<String> suffixes) {
+        return create(identity(suffixes), true);
+    }
+
+    // ------------------------------------------------------------- 匹配
+
+    /**
+     * 是否有前缀（后缀模式为后缀）匹配
+     */
+    public boolean matches(CharSequence s) {
+        if (s == null) return false;
+        if (nodeKey[ROOT] >= 0) return true;
+        return walk(s, null, true) >= 0;
+    }
+
+    /**
+     * 最长的匹配对应的值，没有匹配时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V longestMatch(CharSequence s) {
+        int k = longest(s);
+        return k < 0 ? null : (V) values[k];
+    }
+
+    /**
+     * 最长的匹配key，没有匹配时返回null
+     */
+    public String longestMatchKey(CharSequence s) {
+        int k = longest(s);
+        return k < 0 ? null : keys[k];
+    }
+
+    /**
+     * 所有匹配的值，按key从短到长
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> allMatches(CharSequence s) {
+        List<Integer> hits = new ArrayList<>();
+        if (s != null) walk(s, hits, false);
+        List<V> r = new ArrayList<>(hits.size());
+        for (int k : hits) {
+            r.add((V) values[k]);
+        }
+        return r;
+    }
+
+    /**
+     * 所有匹配的key，按从短到长
+     */
+    public List<String> allMatchKeys(CharSequence s) {
+        List<Integer> hits = new ArrayList<>();
+        if (s != null) walk(s, hits, false);
+        List<String> r = new ArrayList<>(hits.size());
+        for (int k : hits) {
+            r.add(keys[k]);
+        }
+        return r;
+    }
+
+    public boolean isSuffix() {
+        return suffix;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    private int longest(CharSequence s) {
+        if (s == null) return -1;
+        return walk(s, null, false);
+    }
+
+    /**
+     * 沿输入走一遍字典树
+     *
+     * @param hits  不为null时收集所有命中的key下标
+     * @param first 为true时命中一个就返回
+     * @return 最后（最长）命中的key下标，没有时为-1
+     */
+    private int walk(CharSequence s, List<Integer> hits, boolean first) {
+        int n = s.length();
+        int last = nodeKey[ROOT];
+        if (last >= 0 && hits != null) hits.add(last);
+        int node = ROOT;
+        int pos = 0;
+        while (pos < n) {
+            int e = edge(node, charAt(s, n, pos));
+            if (e < 0) break;
+            int length = edgeLength[e];
+            if (pos + length > n) break;
+            int start = edgeStart[e];
+            for (int i = 1; i < length; i++) {
+                if (labels[start + i] != charAt(s, n, pos + i)) return last;
+            }
+            pos += length;
+            node = edgeTarget[e];
+            int k = nodeKey[node];
+            if (k >= 0) {
+                last = k;
+                if (first) return k;
+                if (hits != null) hits.add(k);
+            }
+        }
+        return last;
+    }
+
+    private char charAt(CharSequence s, int n, int i) {
+        return suffix ? s.charAt(n - 1 - i) : s.charAt(i);
+    }
+
+    /**
+     * 节点node以字符c开头的子边，没有时返回-1
+     */
+    private int edge(int node, char c) {
+        int lo = childOffsets[node];
+        int hi = childOffsets[node + 1] - 1;
+        if (hi - lo < LINEAR_SCAN) {
+            for (int p = lo; p <= hi; p++) {
+                if (edgeFirst[p] == c) return p;
+                if (edgeFirst[p] > c) break;
+            }
+            return -1;
+        }
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = edgeFirst[mid];
+            if (m < c) {
+                lo = mid + 1;
+            } else if (m > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<String, String> identity(Collection<String> c) {
+        Map<String, String> r = new TreeMap<>();
+        if (c != null) {
+            for (String s : c) {
+                if (s != null) r.put(s, s);
+            }
+        }
+        return r;
+    }
+
+    private static <V> PrefixMatcher<V> create(Map<String, ? extends V> map, boolean suffix) {
+        // 后缀模式反转key，统一按前缀建树；按字典序排序后每个子树是连续的一段
+        TreeMap<String, Integer> sorted = new TreeMap<>();
+        String[] keys = new String[map == null ? 0 : map.size()];
+        Object[] values = new Object[keys.length];
+        int k = 0;
+        if (map != null) {
+            for (Map.Entry<String, ? extends V> e : map.entrySet()) {
+                if (e.getKey() == null) continue;
+                keys[k] = e.getKey();
+                values[k] = e.getValue();
+                sorted.put(suffix ? new StringBuilder(e.getKey()).reverse().toString() : e.getKey(), k++);
+            }
+        }
+        if (k < keys.length) {
+            String[] ks = new String[k];
+            Object[] vs = new Object[k];
+            System.arraycopy(keys, 0, ks, 0, k);
+            System.arraycopy(values, 0, vs, 0, k);
+            keys = ks;
+            values = vs;
+        }
+        String[] paths = sorted.keySet().toArray(new String[0]);
+        int[] indexes = new int[paths.length];
+        int i = 0;
+        for (Integer index : sorted.values()) {
+            indexes[i++] = index;
+        }
+        Builder builder = new Builder(paths, indexes);
+        builder.build(builder.newNode(), 0, paths.length, 0);
+        return new PrefixMatcher<>(suffix, builder, keys, values);
+    }
+
+    /**
+     * 由有序的key递归建树，建好后复制到数组
+     */
+    private static final class Builder {
+        private final String[] paths;
+        private final int[] indexes;
+        private final List<Integer> nodeKey = new ArrayList<>();
+        /**
+         * 每个节点的子边：{labels中的起点, 长度, 目标节点}
+         */
+        private final List<List<int[]>> children = new ArrayList<>();
+        private final StringBuilder labels = new StringBuilder();
+
+        Builder(String[] paths, int[] indexes) {
+            this.paths = paths;
+            this.indexes = indexes;
+        }
+
+        int newNode() {
+            nodeKey.add(-1);
+            children.add(new ArrayList<>());
+            return nodeKey.size() - 1;
+        }
+
+        /**
+         * paths[lo, hi)都以paths[lo]的前depth个字符开头
+         */
+        void build(int node, int lo, int hi, int depth) {
+            if (lo < hi && paths[lo].length() == depth) {
+                nodeKey.set(node, indexes[lo]);
+                lo++;
+            }
+            while (lo < hi) {
+                char c = paths[lo].charAt(depth);
+                int end = lo + 1;
+                while (end < hi && paths[end].charAt(depth) == c) {
+                    end++;
+                }
+                // 有序时，一组的公共前缀就是首尾两个的公共前缀
+                String a = paths[lo];
+                String b = paths[end - 1];
+                int common = depth + 1;
+                while (common < a.length() && common < b.length() && a.charAt(common) == b.charAt(common)) {
+                    common++;
+                }
+                int child = newNode();
+                children.get(node).add(new int[]{labels.length(), common - depth, child});
+                labels.append(a, depth, common);
+                build(child, lo, end, common);
+                lo = end;
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * 惰性序列：中间操作只组合处理逻辑，终止操作时在一次遍历中完成全部处理
+ * <p>
+ * 各步骤之间不生成中间集合；limit、first、anyMatch等满足条件后立即停止遍历，
+ * 取前N个结果时只处理必要的元素。每次终止操作都会重新遍历数据源，有状态的操作（distinct、limit、skip）每次重新计数。
+ * 创建后到终止操作前不要改变数据源的长度，预分配容量依赖创建时的长度。
+ * <pre>
+ * List&lt;String&gt; top = ListUtil.seq(orders)
+ *         .filter(Order::isPaid)
+ *         .map(Order::getBuyer)
+ *         .distinct()
+ *         .limit(20)
+ *         .toList();
+ * </pre>
+ *
+ * @param <T> 元素类型
+ */
+public final class Seq<T> {
+
+    /**
+     * 元素个数不确定时，终止操作预分配的最大容量
+     */
+    private static final int MAX_ESTIMATE_PRESIZE = 1024;
+
+    /**
+     * 依次将元素交给sink，sink返回false时停止
+     */
+    @FunctionalInterface
+    private interface Source<T> {
+        /**
+         * @return sink没有要求停止时返回true
+         */
+        boolean forEachWhile(Predicate<? super T> sink);
+    }
+
+    private final Source<T> source;
+    /**
+     * 元素个数的上限，未知时为-1
+     */
+    private final int sizeHint;
+    /**
+     * sizeHint是否为准确的元素个数
+     */
+    private final boolean exact;
+
+    private Seq(Source<T> source, int sizeHint, boolean exact) {
+        this.source = source;
+        this.sizeHint = sizeHint;
+        this.exact = exact && sizeHint >= 0;
+    }
+
+    public static <T> Seq<T> empty() {
+        return new Seq<>(sink -> true, 0, true);
+    }
+
+    public static <T> Seq<T> of(Iterable<T> source) {
+        if (source == null) return empty();
+        if (source instanceof List && source instanceof RandomAccess) {
+            List<T> list = (List<T>) source;
+            return new Seq<>(sink -> {
+                for (int i = 0, n = list.size(); i < n; i++) {
+                    if (!sink.test(list.get(i))) return false;
+                }
+                return true;
+            }, list.size(), true);
+        }
+        int size = source instanceof Collection ? ((Collection<?>) source).size() : -1;
+        return new Seq<>(sink -> {
+            for (T t : source) {
+                if (!sink.test(t)) return false;
+            }
+            return true;
+        }, size, size >= 0);
+    }
+
+    @SafeVarargs
+    public static <T> Seq<T> of(T... ts) {
+        if (ts == null) return empty();
+        List<T> list = new ArrayList<>(ts.length);
+        for (T t : ts) {
+            list.add(t);
+        }
+        return of(list);
+    }
+
+    // ------------------------------------------------------------- 中间操作
+
+    public Seq<T> filter(Predicate<? super T> predicate) {
+        Source<T> src = source;
+        return new Seq<>(sink -> src.forEachWhile(t -> !predicate.test(t) || sink.test(t)), sizeHint, false);
+    }
+
+    public <R> Seq<R> map(Function<? super T, ? extends R> mapper) {
+        Source<T> src = source;
+        return new Seq<>(sink -> src.forEachWhile(t -> sink.test(mapper.apply(t))), sizeHint, exact);
+    }
+
+    public <R> Seq<R> flatMap(Function<? super T, ? extends Iterable<? extends R>> mapper) {
+        Source<T> src = source;
+        return new Seq<>(sink -> src.forEachWhile(t -> {
+            Iterable<? extends R> rs = mapper.apply(t);
+            if (rs == null) return true;
+            for (R r : rs) {
+                if (!sink.test(r)) return false;
+            }
+            return true;
+        }), -1, false);
+    }
+
+    public Seq<T> distinct() {
+        return distinctBy(Function.identity());
+    }
+
+    /**
+     * 按key去重，保留首次出现的元素
+     */
+    public <K> Seq<T> distinctBy(Function<? super T, ? extends K> keyFn) {
+        Source<T> src = source;
+        return new Seq<>(sink -> {
+            Set<K> seen = new HashSet<>();
+            return src.forEachWhile(t -> !seen.add(keyFn.apply(t)) || sink.test(t));
+        }, sizeHint, false);
+    }
+
+    /**
+     * 最多取前n个元素，取满后停止遍历
+     */
+    public Seq<T> limit(int n) {
+        if (n <= 0) return empty();
+        Source<T> src = source;
+        int hint = sizeHint < 0 ? n : Math.min(sizeHint, n);
+        return new Seq<>(sink -> {
+            int[] count = {0};
+            boolean[] stopped = {false};
+            src.forEachWhile(t -> {
+                if (!sink.test(t)) {
+                    stopped[0] = true;
+                    return false;
+                }
+                return ++count[0] < n;
+            });
+            return !stopped[0];
+        }, hint, exact);
+    }
+
+    /**
+     * 跳过前n个元素
+     */
+    public Seq<T> skip(int n) {
+        if (n <= 0) return this;
+        Source<T> src = source;
+        int hint = sizeHint < 0 ? -1 : Math.max(0, sizeHint - n);
+        return new Seq<>(sink -> {
+            int[] skipped = {0};
+            return src.forEachWhile(t -> skipped[0]++ < n || sink.test(t));
+        }, hint, exact);
+    }
+
+    /**
+     * 按指定长度分批，最后一批可能不足
+     */
+    public Seq<List<T>> chunk(int size) {
+        if (size < 1) throw new IllegalArgumentException("size must be positive: " + size);
+        Source<T> src = source;
+        int hint = sizeHint < 0 ? -1 : sizeHint / size + (sizeHint % size == 0 ? 0 : 1);
+        return new Seq<>(sink -> {
+            List<List<T>> buffer = new ArrayList<>(1);
+            buffer.add(new ArrayList<>(Math.min(size, MAX_ESTIMATE_PRESIZE)));
+            boolean completed = src.forEachWhile(t -> {
+                List<T> current = buffer.get(0);
+                current.add(t);
+                if (current.size() < size) return true;
+                buffer.set(0, new ArrayList<>(Math.min(size, MAX_ESTIMATE_PRESIZE)));
+                return sink.test(current);
+            });
+            List<T> rest = buffer.get(0);
+            return completed && (rest.isEmpty() || sink.test(rest));
+        }, hint, exact);
+    }
+
+    public Seq<T> peek(Consumer<? super T> action) {
+        Source<T> src = source;
+        return new Seq<>(sink -> src.forEachWhile(t -> {
+            action.accept(t);
+            return sink.test(t);
+        }), sizeHint, exact);
+    }
+
+    // ------------------------------------------------------------- 终止操作
+
+    public void forEach(Consumer<? super T> action) {
+        source.forEachWhile(t -> {
+            action.accept(t);
+            return true;
+        });
+    }
+
+    public List<T> toList() {
+        List<T> r = new ArrayList<>(presize());
+        source.forEachWhile(r::add);
+        return r;
+    }
+
+    public Set<T> toSet() {
+        Set<T> r = new HashSet<>(MapUtil.capacity(presize()));
+        forEach(r::add);
+        return r;
+    }
+
+    /**
+     * key重复时后面的元素覆盖前面的
+     */
+    public <K> Map<K, T> toMap(Function<? super T, ? extends K> keyFn) {
+        return toMap(keyFn, Function.identity());
+    }
+
+    /**
+     * key重复时后面的值覆盖前面的
+     */
+    public <K, V> Map<K, V> toMap(Function<? super T, ? extends K> keyFn, Function<? super T, ? extends V> valueFn) {
+        Map<K, V> r = new HashMap<>(MapUtil.capacity(presize()));
+        forEach(t -> r.put(keyFn.apply(t), valueFn.apply(t)));
+        return r;
+    }
+
+    public T[] toArray(IntFunction<T[]> generator) {
+        if (exact) {
+            T[] r = generator.apply(sizeHint);
+            int[] i = {0};
+            forEach(t -> r[i[0]++] = t);
+            return r;
+        }
+        List<T> list = toList();
+        return list.toArray(generator.apply(list.size()));
+    }
+
+    /**
+     * 第一个元素，没有时返回null
+     */
+    public T first() {
+        List<T> r = new ArrayList<>(1);
+        source.forEachWhile(t -> {
+            r.add(t);
+            return false;
+        });
+        return r.isEmpty() ? null : r.get(0);
+    }
+
+    /**
+     * 前n个元素
+     */
+    public List<T> first(int n) {
+        return limit(n).toList();
+    }
+
+    public long count() {
+        if (exact) return sizeHint;
+        long[] count = {0};
+        forEach(t -> count[0]++);
+        return count[0];
+    }
+
+    public boolean anyMatch(Predicate<? super T> predicate) {
+        return !source.forEachWhile(t -> !predicate.test(t));
+    }
+
+    public boolean allMatch(Predicate<? super T> predicate) {
+        return source.forEachWhile(predicate);
+    }
+
+    public boolean noneMatch(Predicate<? super T> predicate) {
+        return !anyMatch(predicate);
+    }
+
+    private int presize() {
+        if (sizeHint < 0) return 10;
+        return exact ? sizeHint : Math.min(sizeHint, MAX_ESTIMATE_PRESIZE);
+    }
+}
@@ -0,0 +1,357 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 集合运算引擎，供ListUtil的交集、差集、去重使用
+ * <p>
+ * 根据输入规模和有序性选择执行方式：
+ * 小集合直接线性比较；两边都按自然顺序有序时走归并；其余情况走哈希。
+ * 大的Integer/Long集合的交集判断改用压缩位图。
+ * 所有结果都按元素首次出现的顺序返回
+ */
+final class SetAlgebra {
+
+    /**
+     * 两集合长度乘积不超过该值时，直接嵌套比较
+     */
+    static final int LINEAR_THRESHOLD = 256;
+
+    /**
+     * Integer/Long集合两边都不少于该长度时，改用压缩位图
+     */
+    static final int BITMAP_THRESHOLD = 4096;
+
+    private SetAlgebra() {
+    }
+
+    /**
+     * 取t1中key存在于t2的元素，按key去重，跳过null元素和null key
+     */
+    static <T, K> List<T> intersection(List<T> t1, List<T> t2, Function<? super T, ? extends K> keyFn) {
+        if ((long) t1.size() * t2.size() <= LINEAR_THRESHOLD) {
+            return linearIntersection(t1, t2, keyFn);
+        }
+
+        Object[] k1 = keys(t1, keyFn);
+        Object[] k2 = keys(t2, keyFn);
+        if (isSorted(k1, k2)) {
+            return mergeIntersection(t1, k1, k2);
+        }
+        return hashIntersection(t1, k1, k2);
+    }
+
+    /**
+     * 取key只出现在其中一个集合中的元素：先t1后t2，按key去重
+     */
+    static <T, K> List<T> difference(List<T> t1, List<T> t2, Function<? super T, ? extends K> keyFn) {
+        if ((long) t1.size() * t2.size() <= LINEAR_THRESHOLD) {
+            return linearDifference(t1, t2, keyFn);
+        }
+
+        Object[] k1 = keys(t1, keyFn);
+        Object[] k2 = keys(t2, keyFn);
+        if (isSorted(k1, k2)) {
+            return mergeDifference(t1, k1, t2, k2);
+        }
+        return hashDifference(t1, k1, t2, k2);
+    }
+
+    /**
+     * 按key去重，保留首次出现的元素
+     */
+    static <T, K> List<T> deDuplicate(List<T> source, Function<? super T, ? extends K> keyFn) {
+        if (source.size() <= 16) {
+            return linearDeDuplicate(source, keyFn);
+        }
+
+        Object[] keys = keys(source, keyFn);
+        if (isSorted(keys)) {
+            List<T> list = randomAccess(source);
+            List<T> r = new ArrayList<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (i == 0 || !keys[i].equals(keys[i - 1])) r.add(list.get(i));
+            }
+            return r;
+        }
+
+        Set<Object> seen = new HashSet<>(MapUtil.capacity(keys.length));
+        List<T> r = new ArrayList<>();
+        int i = 0;
+        for (T s : source) {
+            if (seen.add(keys[i++])) r.add(s);
+        }
+        return r;
+    }
+
+    /**
+     * 用压缩位图取交集，元素不全是同一类型的Integer或int范围内的Long时返回null
+     */
+    static <T> List<T> bitmapIntersection(List<T> t1, List<T> t2) {
+        if (t1.size() < BITMAP_THRESHOLD || t2.size() < BITMAP_THRESHOLD) return null;
+
+        Class<?> type = integralType(t2);
+        CompressedBitmap other = type == null ? null : toBitmap(t2, type);
+        if (other == null) return null;
+
+        CompressedBitmap emitted = new CompressedBitmap();
+        List<T> result = new ArrayList<>();
+        for (T c : t1) {
+            if (c == null || c.getClass() != type) continue;
+            long v = ((Number) c).longValue();
+            if (v != (int) v) continue;
+            if (other.contains((int) v) && !emitted.contains((int) v)) {
+                emitted.add((int) v);
+                result.add(c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 用压缩位图判断是否存在交集，元素不全是同一类型的Integer或int范围内的Long时返回null
+     */
+    static Boolean bitmapIntersects(List<?> t1, List<?> t2) {
+        if (t1.size() < BITMAP_THRESHOLD || t2.size() < BITMAP_THRESHOLD) return null;
+
+        List<?> smaller = t1.size() <= t2.size() ? t1 : t2;
+        List<?> larger = t1.size() <= t2.size() ? t2 : t1;
+        Class<?> type = integralType(smaller);
+        CompressedBitmap bitmap = type == null ? null : toBitmap(smaller, type);
+        if (bitmap == null) return null;
+
+        for (Object item : larger) {
+            if (item == null || item.getClass() != type) continue;
+            long v = ((Number) item).longValue();
+            if (v == (int) v && bitmap.contains((int) v)) return true;
+        }
+        return false;
+    }
+
+    private static Class<?> integralType(List<?> source) {
+        Object first = source.get(0);
+        if (first instanceof Integer) return Integer.class;
+        if (first instanceof Long) return Long.class;
+        return null;
+    }
+
+    private static CompressedBitmap toBitmap(List<?> source, Class<?> type) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (Object o : source) {
+            if (o == null || o.getClass() != type) return null;
+            long v = ((Number) o).longValue();
+            if (v != (int) v) return null;
+            bitmap.add((int) v);
+        }
+        return bitmap;
+    }
+
+    // ----------------------------------------------------------------- linear
+
+    private static <T, K> List<T> linearIntersection(List<T> t1, List<T> t2, Function<? super T, ? extends K> keyFn) {
+        List<T> result = new ArrayList<>();
+        List<K> emitted = new ArrayList<>();
+        for (T c : t1) {
+            if (c == null) continue;
+            K ck = keyFn.apply(c);
+            if (ck == null || emitted.contains(ck)) continue;
+            for (T v : t2) {
+                if (v != null && ck.equals(keyFn.apply(v))) {
+                    result.add(c);
+                    emitted.add(ck);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static <T, K> List<T> linearDifference(List<T> t1, List<T> t2, Function<? super T, ? extends K> keyFn) {
+        List<K> l1 = linearKeys(t1, keyFn);
+        List<K> l2 = linearKeys(t2, keyFn);
+        List<T> result = new ArrayList<>();
+        List<K> emitted = new ArrayList<>();
+        collectMissing(t1, l1, l2, result, emitted);
+        collectMissing(t2, l2, l1, result, emitted);
+        return result;
+    }
+
+    private static <T, K> void collectMissing(List<T> src, List<K> srcKeys, List<K> otherKeys,
+                                              List<T> result, List<K> emitted) {
+        int i = 0;
+        for (T s : src) {
+            K k = srcKeys.get(i++);
+            if (!otherKeys.contains(k) && !emitted.contains(k)) {
+                result.add(s);
+                emitted.add(k);
+            }
+        }
+    }
+
+    private static <T, K> List<T> linearDeDuplicate(List<T> source, Function<? super T, ? extends K> keyFn) {
+        List<T> r = new ArrayList<>();
+        List<K> emitted = new ArrayList<>();
+        for (T s : source) {
+            K k = s == null ? null : keyFn.apply(s);
+            if (!emitted.contains(k)) {
+                r.add(s);
+                emitted.add(k);
+            }
+        }
+        return r;
+    }
+
+    private static <T, K> List<K> linearKeys(List<T> source, Function<? super T, ? extends K> keyFn) {
+        List<K> r = new ArrayList<>(source.size());
+        for (T s : source) {
+            r.add(s == null ? null : keyFn.apply(s));
+        }
+        return r;
+    }
+
+    // ------------------------------------------------------------------- hash
+
+    private static <T> List<T> hashIntersection(List<T> t1, Object[] k1, Object[] k2) {
+        Set<Object> other = new HashSet<>(MapUtil.capacity(k2.length));
+        Collections.addAll(other, k2);
+
+        Set<Object> emitted = new HashSet<>();
+        List<T> result = new ArrayList<>();
+        int i = 0;
+        for (T c : t1) {
+            Object k = k1[i++];
+            if (c != null && k != null && other.contains(k) && emitted.add(k)) result.add(c);
+        }
+        return result;
+    }
+
+    private static <T> List<T> hashDifference(List<T> t1, Object[] k1, List<T> t2, Object[] k2) {
+        Set<Object> s1 = new HashSet<>(MapUtil.capacity(k1.length));
+        Collections.addAll(s1, k1);
+        Set<Object> s2 = new HashSet<>(MapUtil.capacity(k2.length));
+        Collections.addAll(s2, k2);
+
+        Set<Object> emitted = new HashSet<>();
+        List<T> result = new ArrayList<>();
+        int i = 0;
+        for (T o1 : t1) {
+            Object k = k1[i++];
+            if (!s2.contains(k) && emitted.add(k)) result.add(o1);
+        }
+        i = 0;
+        for (T o2 : t2) {
+            Object k = k2[i++];
+            if (!s1.contains(k) && emitted.add(k)) result.add(o2);
+        }
+        return result;
+    }
+
+    // ------------------------------------------------------------------ merge
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> List<T> mergeIntersection(List<T> t1, Object[] k1, Object[] k2) {
+        t1 = randomAccess(t1);
+        List<T> result = new ArrayList<>();
+        int i = 0, j = 0;
+        Object last = null;
+        while (i < k1.length && j < k2.length) {
+            int c = ((Comparable) k1[i]).compareTo(k2[j]);
+            if (c < 0) {
+                i++;
+            } else if (c > 0) {
+                j++;
+            } else {
+                if (last == null || !last.equals(k1[i])) {
+                    result.add(t1.get(i));
+                    last = k1[i];
+                }
+                i++;
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> List<T> mergeDifference(List<T> t1, Object[] k1, List<T> t2, Object[] k2) {
+        t1 = randomAccess(t1);
+        t2 = randomAccess(t2);
+        List<T> only1 = new ArrayList<>();
+        List<T> only2 = new ArrayList<>();
+        int i = 0, j = 0;
+        while (i < k1.length || j < k2.length) {
+            int c;
+            if (i >= k1.length) c = 1;
+            else if (j >= k2.length) c = -1;
+            else c = ((Comparable) k1[i]).compareTo(k2[j]);
+
+            if (c < 0) {
+                Object k = k1[i];
+                only1.add(t1.get(i));
+                while (i < k1.length && k1[i].equals(k)) i++;
+            } else if (c > 0) {
+                Object k = k2[j];
+                only2.add(t2.get(j));
+                while (j < k2.length && k2[j].equals(k)) j++;
+            } else {
+                Object k = k1[i];
+                while (i < k1.length && k1[i].equals(k)) i++;
+                while (j < k2.length && k2[j].equals(k)) j++;
+            }
+        }
+        only1.addAll(only2);
+        return only1;
+    }
+
+    // ------------------------------------------------------------------ utils
+
+    /**
+     * 归并时按下标取元素，LinkedList等先复制为数组，避免每次get都从头遍历
+     */
+    private static <T> List<T> randomAccess(List<T> list) {
+        if (list instanceof RandomAccess) return list;
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) list.toArray();
+        return Arrays.asList(array);
+    }
+
+    private static <T, K> Object[] keys(List<T> source, Function<? super T, ? extends K> keyFn) {
+        Object[] keys = new Object[source.size()];
+        int i = 0;
+        for (T s : source) {
+            keys[i++] = s == null ? null : keyFn.apply(s);
+        }
+        return keys;
+    }
+
+    /**
+     * 判断key是否非null、同一类型、按自然顺序非递减
+     * <p>
+     * 只接受compareTo与equals一致的类型，否则归并结果会和equals语义不同
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean isSorted(Object[] keys) {
+        if (keys.length == 0 || keys[0] == null) return false;
+        Class<?> type = keys[0].getClass();
+        if (!isNaturallyOrdered(type)) return false;
+
+        for (int i = 1; i < keys.length; i++) {
+            Object k = keys[i];
+            if (k == null || k.getClass() != type) return false;
+            if (((Comparable) keys[i - 1]).compareTo(k) > 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 两边的key都有序且是同一类型时才能归并，类型不同时compareTo会抛出ClassCastException
+     */
+    private static boolean isSorted(Object[] k1, Object[] k2) {
+        return isSorted(k1) && isSorted(k2) && k1[0].getClass() == k2[0].getClass();
+    }
+
+    private static boolean isNaturallyOrdered(Class<?> type) {
+        return type == String.class || type == Integer.class || type == Long.class
+                || type == Short.class || type == Byte.class || type == Character.class;
+    }
+}
@@ -0,0 +1,295 @@
+package com.lingdol.common.util;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * ListUtil的排序实现：先为每个元素提取一次key，再对key排序，最后按排序后的下标取元素
+ * <p>
+ * int key与下标打包进一个long直接排序；long/double key与下标两个数组一起归并排序；
+ * 其他key包装后用稳定排序。所有排序都是稳定的
+ */
+final class SortOps {
+
+    /**
+     * 并行归并排序时，区间短于该值不再拆分
+     */
+    private static final int PARALLEL_GRAIN = 1 << 13;
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private SortOps() {
+    }
+
+    static <T> List<T> sortByInt(List<T> list, ToIntFunction<? super T> keyFn, boolean parallel) {
+        Object[] values = list.toArray();
+        long[] packed = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            @SuppressWarnings("unchecked")
+            T t = (T) values[i];
+            packed[i] = ((long) keyFn.applyAsInt(t) << 32) | i;
+        }
+        if (parallel) {
+            Arrays.parallelSort(packed);
+        } else {
+            Arrays.sort(packed);
+        }
+
+        List<T> r = new ArrayList<>(values.length);
+        for (long p : packed) {
+            r.add(SortOps.<T>cast(values[(int) p]));
+        }
+        return r;
+    }
+
+    static <T> List<T> sortByLong(List<T> list, ToLongFunction<? super T> keyFn, boolean parallel) {
+        Object[] values = list.toArray();
+        long[] keys = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = keyFn.applyAsLong(SortOps.<T>cast(values[i]));
+        }
+        return sortByKeys(values, keys, parallel);
+    }
+
+    static <T> List<T> sortByDouble(List<T> list, ToDoubleFunction<? super T> keyFn, boolean parallel) {
+        Object[] values = list.toArray();
+        long[] keys = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = sortableBits(keyFn.applyAsDouble(SortOps.<T>cast(values[i])));
+        }
+        return sortByKeys(values, keys, parallel);
+    }
+
+    /**
+     * 按多个key依次比较，key为null的排在最后
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> List<T> sortBy(List<T> list, List<Function<? super T, ? extends Comparable<?>>> keyFns, boolean parallel) {
+        int n = list.size();
+        int m = keyFns.size();
+        Decorated[] ds = new Decorated[n];
+        int i = 0;
+        for (T t : list) {
+            Object[] keys = new Object[m];
+            for (int k = 0; k < m; k++) {
+                keys[k] = keyFns.get(k).apply(t);
+            }
+            ds[i++] = new Decorated(t, keys);
+        }
+
+        Comparator<Decorated> cmp = (a, b) -> {
+            for (int k = 0; k < a.keys.length; k++) {
+                int c = compareNullsLast((Comparable) a.keys[k], (Comparable) b.keys[k]);
+                if (c != 0) return c;
+            }
+            return 0;
+        };
+        return undecorate(ds, cmp, parallel);
+    }
+
+    /**
+     * 按key和key的比较器排序
+     */
+    static <T, K> List<T> sortBy(List<T> list, Function<? super T, ? extends K> keyFn,
+                                 Comparator<? super K> keyComparator, boolean parallel) {
+        Decorated[] ds = new Decorated[list.size()];
+        int i = 0;
+        for (T t : list) {
+            ds[i++] = new Decorated(t, new Object[]{keyFn.apply(t)});
+        }
+        Comparator<Decorated> cmp = (a, b) -> keyComparator.compare(SortOps.<K>cast(a.keys[0]), SortOps.<K>cast(b.keys[0]));
+        return undecorate(ds, cmp, parallel);
+    }
+
+    /**
+     * 多路归并已排序的集合，比较结果相等时靠前集合的元素在前
+     */
+    static <T> List<T> mergeSorted(Collection<? extends List<T>> inputs, Comparator<? super T> comparator) {
+        int total = 0;
+        List<List<T>> lists = new ArrayList<>(inputs.size());
+        for (List<T> input : inputs) {
+            if (input == null || input.isEmpty()) continue;
+            lists.add(input instanceof RandomAccess ? input : new ArrayList<>(input));
+            total += input.size();
+        }
+
+        List<T> r = new ArrayList<>(total);
+        if (lists.size() == 1) {
+            r.addAll(lists.get(0));
+            return r;
+        }
+
+        int[] pos = new int[lists.size()];
+        PriorityQueue<Integer> heap = new PriorityQueue<>(lists.size(), (a, b) -> {
+            int c = comparator.compare(lists.get(a).get(pos[a]), lists.get(b).get(pos[b]));
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        for (int i = 0; i < lists.size(); i++) {
+            heap.add(i);
+        }
+        while (!heap.isEmpty()) {
+            int i = heap.poll();
+            List<T> list = lists.get(i);
+            r.add(list.get(pos[i]++));
+            if (pos[i] < list.size()) heap.add(i);
+        }
+        return r;
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    private static final class Decorated {
+        final Object value;
+        final Object[] keys;
+
+        Decorated(Object value, Object[] keys) {
+            this.value = value;
+            this.keys = keys;
+        }
+    }
+
+    private static <T> List<T> undecorate(Decorated[] ds, Comparator<Decorated> cmp, boolean parallel) {
+        if (parallel) {
+            Arrays.parallelSort(ds, cmp);
+        } else {
+            Arrays.sort(ds, cmp);
+        }
+        List<T> r = new ArrayList<>(ds.length);
+        for (Decorated d : ds) {
+            r.add(SortOps.<T>cast(d.value));
+        }
+        return r;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object o) {
+        return (T) o;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareNullsLast(Comparable a, Comparable b) {
+        if (a == b) return 0;
+        if (a == null) return 1;
+        if (b == null) return -1;
+        return a.compareTo(b);
+    }
+
+    /**
+     * 将double转换为按有符号long比较时顺序与Double.compare一致的值
+     */
+    static long sortableBits(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static <T> List<T> sortByKeys(Object[] values, long[] keys, boolean parallel) {
+        int n = keys.length;
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        long[] tmpKeys = new long[n];
+        int[] tmpIndex = new int[n];
+        if (parallel && n > PARALLEL_GRAIN) {
+            ForkJoinPool.commonPool().invoke(new MergeSortAction(keys, index, tmpKeys, tmpIndex, 0, n));
+        } else {
+            mergeSort(keys, index, tmpKeys, tmpIndex, 0, n);
+        }
+
+        List<T> r = new ArrayList<>(n);
+        for (int i : index) {
+            r.add(SortOps.<T>cast(values[i]));
+        }
+        return r;
+    }
+
+    private static void mergeSort(long[] keys, int[] index, long[] tmpKeys, int[] tmpIndex, int lo, int hi) {
+        if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, index, lo, hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(keys, index, tmpKeys, tmpIndex, lo, mid);
+        mergeSort(keys, index, tmpKeys, tmpIndex, mid, hi);
+        merge(keys, index, tmpKeys, tmpIndex, lo, mid, hi);
+    }
+
+    private static void insertionSort(long[] keys, int[] index, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            long k = keys[i];
+            int x = index[i];
+            int j = i - 1;
+            while (j >= lo && keys[j] > k) {
+                keys[j + 1] = keys[j];
+                index[j + 1] = index[j];
+                j--;
+            }
+            keys[j + 1] = k;
+            index[j + 1] = x;
+        }
+    }
+
+    /**
+     * 合并[lo, mid)和[mid, hi)两个有序区间，相等时左侧在前
+     */
+    private static void merge(long[] keys, int[] index, long[] tmpKeys, int[] tmpIndex, int lo, int mid, int hi) {
+        if (keys[mid - 1] <= keys[mid]) return;
+        System.arraycopy(keys, lo, tmpKeys, lo, hi - lo);
+        System.arraycopy(index, lo, tmpIndex, lo, hi - lo);
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            if (tmpKeys[j] < tmpKeys[i]) {
+                keys[k] = tmpKeys[j];
+                index[k++] = tmpIndex[j++];
+            } else {
+                keys[k] = tmpKeys[i];
+                index[k++] = tmpIndex[i++];
+            }
+        }
+        while (i < mid) {
+            keys[k] = tmpKeys[i];
+            index[k++] = tmpIndex[i++];
+        }
+        while (j < hi) {
+            keys[k] = tmpKeys[j];
+            index[k++] = tmpIndex[j++];
+        }
+    }
+
+    private static final class MergeSortAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys;
+        private final int[] index;
+        private final long[] tmpKeys;
+        private final int[] tmpIndex;
+        private final int lo;
+        private final int hi;
+
+        MergeSortAction(long[] keys, int[] index, long[] tmpKeys, int[] tmpIndex, int lo, int hi) {
+            this.keys = keys;
+            this.index = index;
+            this.tmpKeys = tmpKeys;
+            this.tmpIndex = tmpIndex;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= PARALLEL_GRAIN) {
+                mergeSort(keys, index, tmpKeys, tmpIndex, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new MergeSortAction(keys, index, tmpKeys, tmpIndex, lo, mid),
+                    new MergeSortAction(keys, index, tmpKeys, tmpIndex, mid, hi));
+            merge(keys, index, tmpKeys, tmpIndex, lo, mid, hi);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.lingdol.common.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 字符串拆分，不可变，可以复用和多线程共用
+ * <p>
+ * 字符、字符串分隔符按字面量查找，不经过正则；正则分隔符编译后缓存。
+ * split返回惰性的Iterable，遍历时才查找下一个分隔符，每段是原字符串的视图，不复制字符；
+ * splitToList生成String集合。默认保留所有空段（包括末尾的），与Pattern.split(input, -1)一致
+ * <pre>
+ * Splitter.on(',').trimResults().omitEmptyStrings().splitToList(" a, b,, c"); // [a, b, c]
+ * </pre>
+ */
+public final class Splitter {
+
+    private static final String REGEX_META = ".$|()[{^?*+\\";
+    private static final int MAX_CACHED_PATTERNS = 256;
+    private static final ConcurrentHashMap<String, Pattern> PATTERN_CACHE = new ConcurrentHashMap<>();
+
+    private final Strategy strategy;
+    private final boolean trim;
+    private final boolean omitEmpty;
+    private final int limit;
+
+    private Splitter(Strategy strategy, boolean trim, boolean omitEmpty, int limit) {
+        this.strategy = strategy;
+        this.trim = trim;
+        this.omitEmpty = omitEmpty;
+        this.limit = limit;
+    }
+
+    /**
+     * 按字符拆分
+     */
+    public static Splitter on(char separator) {
+        return new Splitter(s -> new CharFinder(s, separator), false, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按字符串字面量拆分，不做正则解析
+     */
+    public static Splitter on(String separator) {
+        if (StringUtil.isEmpty(separator)) throw new IllegalArgumentException("separator must not be empty");
+        if (separator.length() == 1) return on(separator.charAt(0));
+        return new Splitter(s -> new StringFinder(s, separator), false, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按正则拆分，编译结果会被缓存；不匹配空串开头的零宽匹配，与Pattern.split一致
+     */
+    public static Splitter onPattern(String regex) {
+        return onPattern(compile(regex));
+    }
+
+    public static Splitter onPattern(Pattern pattern) {
+        return new Splitter(s -> new PatternFinder(pattern.matcher(s)), false, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 与String.split相同的分隔符语义：按正则处理，但不含正则元字符（或是转义的单个非字母数字字符）时走字面量快速路径
+     */
+    public static Splitter onSplitRegex(String regex) {
+        String literal = literalOf(regex);
+        return literal != null ? on(literal) : onPattern(regex);
+    }
+
+    /**
+     * 去掉每段首尾的空白字符（不大于' '的字符，与String.trim一致）
+     */
+    public Splitter trimResults() {
+        return new Splitter(strategy, true, omitEmpty, limit);
+    }
+
+    /**
+     * 忽略空段，与trimResults同时使用时忽略去掉空白后为空的段
+     */
+    public Splitter omitEmptyStrings() {
+        return new Splitter(strategy, trim, true, limit);
+    }
+
+    /**
+     * 最多拆成limit段，最后一段包含剩余的全部内容
+     */
+    public Splitter limit(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be positive: " + limit);
+        return new Splitter(strategy, trim, omitEmpty, limit);
+    }
+
+    /**
+     * 惰性拆分，每段是原字符串的视图；需要保存时调用toString
+     */
+    public Iterable<CharSequence> split(CharSequence s) {
+        if (s == null) throw new IllegalArgumentException("input must not be null");
+        return () -> new SplitIterator(s);
+    }
+
+    public List<String> splitToList(CharSequence s) {
+        List<String> r = new ArrayList<>();
+        if (s == null) return r;
+        SplitIterator it = new SplitIterator(s);
+        while (it.hasNext()) {
+            r.add(it.next().toString());
+        }
+        return r;
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    /**
+     * 分隔符为字面量时返回字面量，否则返回null
+     */
+    static String literalOf(String regex) {
+        if (regex.isEmpty()) return null;
+        if (regex.length() == 2 && regex.charAt(0) == '\\') {
+            char c = regex.charAt(1);
+            boolean alnum = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            return alnum || Character.isSurrogate(c) ? null : String.valueOf(c);
+        }
+        for (int i = 0; i < regex.length(); i++) {
+            if (REGEX_META.indexOf(regex.charAt(i)) >= 0) return null;
+        }
+        return regex;
+    }
+
+    static Pattern compile(String regex) {
+        Pattern p = PATTERN_CACHE.get(regex);
+        if (p != null) return p;
+        p = Pattern.compile(regex);
+        if (PATTERN_CACHE.size() < MAX_CACHED_PATTERNS) PATTERN_CACHE.putIfAbsent(regex, p);
+        return p;
+    }
+
+    private interface Strategy {
+        Finder finder(CharSequence s);
+    }
+
+    /**
+     * 在一次拆分中依次查找分隔符
+     */
+    private interface Finder {
+        /**
+         * @return 从from开始的下一个分隔符的起点，没有时返回-1
+         */
+        int find(int from);
+
+        /**
+         * 上一次找到的分隔符的终点
+         */
+        int end();
+    }
+
+    private static final class CharFinder implements Finder {
+        private final CharSequence s;
+        private final char c;
+        private int end;
+
+        CharFinder(CharSequence s, char c) {
+            this.s = s;
+            this.c = c;
+        }
+
+        @Override
+        public int find(int from) {
+            int i;
+            if (s instanceof String) {
+                i = ((String) s).indexOf(c, from);
+            } else {
+                i = -1;
+                for (int j = from, n = s.length(); j < n; j++) {
+                    if (s.charAt(j) == c) {
+                        i = j;
+                        break;
+                    }
+                }
+            }
+            end = i + 1;
+            return i;
+        }
+
+        @Override
+        public int end() {
+            return end;
+        }
+    }
+
+    private static final class StringFinder implements Finder {
+        private final CharSequence s;
+        private final String separator;
+        private int end;
+
+        StringFinder(CharSequence s, String separator) {
+            this.s = s;
+            this.separator = separator;
+        }
+
+        @Override
+        public int find(int from) {
+            int i = s instanceof String ? ((String) s).indexOf(separator, from) : indexOf(from);
+            end = i + separator.length();
+            return i;
+        }
+
+        private int indexOf(int from) {
+            char first = separator.charAt(0);
+            int m = separator.length();
+            outer:
+            for (int i = from, last = s.length() - m; i <= last; i++) {
+                if (s.charAt(i) != first) continue;
+                for (int j = 1; j < m; j++) {
+                    if (s.charAt(i + j) != separator.charAt(j)) continue outer;
+                }
+                return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public int end() {
+            return end;
+        }
+    }
+
+    private static final class PatternFinder implements Finder {
+        private final Matcher matcher;
+
+        PatternFinder(Matcher matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        public int find(int from) {
+            while (matcher.find()) {
+                // 与Pattern.split一致，跳过开头的零宽匹配
+                if (matcher.end() == 0) continue;
+                return matcher.start();
+            }
+            return -1;
+        }
+
+        @Override
+        public int end() {
+            return matcher.end();
+        }
+    }
+
+    private final class SplitIterator implements Iterator<CharSequence> {
+        private final CharSequence s;
+        private final Finder finder;
+        private int next;
+        private int count;
+        private boolean done;
+        private CharSequence pending;
+
+        SplitIterator(CharSequence s) {
+            this.s = s;
+            this.finder = strategy.finder(s);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pending == null) pending = computeNext();
+            return pending != null;
+        }
+
+        @Override
+        public CharSequence next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            CharSequence r = pending;
+            pending = null;
+            return r;
+        }
+
+        private CharSequence computeNext() {
+            while (!done) {
+                int start = next;
+                int end;
+                int sep = count == limit - 1 ? -1 : finder.find(start);
+                if (sep < 0) {
+                    end = s.length();
+                    done = true;
+                } else {
+                    end = sep;
+                    next = finder.end();
+                }
+                if (trim) {
+                    while (start < end && s.charAt(start) <= ' ') start++;
+                    while (end > start && s.charAt(end - 1) <= ' ') end--;
+                }
+                if (omitEmpty && start == end) continue;
+                count++;
+                return new Slice(s, start, end);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 原字符串的一段，不复制字符；toString时才生成String
+     */
+    private static final class Slice implements CharSequence {
+        private final CharSequence s;
+        private final int start;
+        private final int end;
+
+        Slice(CharSequence s, int start, int end) {
+            this.s = s;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) throw new IndexOutOfBoundsException("index: " + index);
+            return s.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > end - start || from > to) throw new IndexOutOfBoundsException(from + ", " + to);
+            return new Slice(s, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return s instanceof String ? ((String) s).substring(start, end) : s.subSequence(start, end).toString();
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.lingdol.common.util;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 public class StringUtil {
@@ -18,7 +18,7 @@ public class StringUtil {
     public static String one(String... es) {
         if (es != null) {
             for (String e : es) {
-                if (e != null && !e.trim().isEmpty()) return e;
+                if (indexOfNonBlank(e, false) >= 0) return e;
             }
         }
         return EMPTY;
@@ -67,7 +67,15 @@ public class StringUtil {
      */
     public static String join(String separator, Collection<String> es) {
         if (ListUtil.isEmpty(es)) return EMPTY;
-        return join(separator, (Object[]) es.toArray(new String[0]));
+
+        Joiner joiner = Joiner.on(separator).skipNulls();
+        Iterator<String> it = es.iterator();
+        if (it.next() != null) return joiner.join(es);
+        // 与join(String, Object...)一致：首个元素为null时，之后每个非null元素前都有分隔符
+        while (it.hasNext()) {
+            if (it.next() != null) return joiner.withPrefix(separator).join(es);
+        }
+        return EMPTY;
     }
 
 
@@ -97,21 +105,100 @@ public class StringUtil {
      * @param e 元素
      */
     public static boolean isBlank(String e) {
-        if (e == null) return true;
-        return e.trim().length() <= 0;
+        return indexOfNonBlank(e, false) < 0;
     }
 
     /**
-     * 去掉字符串左右的空格，如果去除后为空，返回null
+     * 判断字符序列为空或者都是空白符（不大于' '的字符，与String.trim一致）
+     */
+    public static boolean isBlank(CharSequence e) {
+        return indexOfNonBlank(e, false) < 0;
+    }
+
+    /**
+     * 判断字符序列为空或者都是空白符
+     *
+     * @param unicode 为true时全角空格、不换行空格等Unicode空白也算空白，见isBlankChar
+     */
+    public static boolean isBlank(CharSequence e, boolean unicode) {
+        return indexOfNonBlank(e, unicode) < 0;
+    }
+
+    /**
+     * 去掉字符串左右的空格，如果去除后为空，返回null；不需要去除时返回原字符串
      */
     public static String trimToNull(String s) {
-        if (isBlank(s)) return null;
-        return s.trim();
+        return trimToNull(s, false);
+    }
+
+    /**
+     * 去掉字符串左右的空白，如果去除后为空，返回null；不需要去除时返回原字符串
+     *
+     * @param unicode 为true时同时去掉Unicode空白，见isBlankChar
+     */
+    public static String trimToNull(String s, boolean unicode) {
+        int start = indexOfNonBlank(s, unicode);
+        if (start < 0) return null;
+        return s.substring(start, lastIndexOfNonBlank(s, unicode) + 1);
     }
 
     public static String trim(String s) {
+        return trim(s, false);
+    }
+
+    /**
+     * 去掉字符串左右的空白，null返回空字符串；不需要去除时返回原字符串
+     *
+     * @param unicode 为true时同时去掉Unicode空白，见isBlankChar
+     */
+    public static String trim(String s, boolean unicode) {
         if (isEmpty(s)) return EMPTY;
-        return s.trim();
+        int start = indexOfNonBlank(s, unicode);
+        if (start < 0) return EMPTY;
+        return s.substring(start, lastIndexOfNonBlank(s, unicode) + 1);
+    }
+
+    /**
+     * 去掉字符序列左右的空白，null返回空字符串；不需要去除时返回原对象，否则返回subSequence
+     */
+    public static CharSequence trim(CharSequence s, boolean unicode) {
+        if (s == null) return EMPTY;
+        int start = indexOfNonBlank(s, unicode);
+        if (start < 0) return EMPTY;
+        int end = lastIndexOfNonBlank(s, unicode) + 1;
+        return start == 0 && end == s.length() ? s : s.subSequence(start, end);
+    }
+
+    /**
+     * 第一个非空白字符的下标，null或全是空白时返回-1
+     */
+    public static int indexOfNonBlank(CharSequence s, boolean unicode) {
+        if (s == null) return -1;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (!isBlankChar(s.charAt(i), unicode)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 最后一个非空白字符的下标，null或全是空白时返回-1
+     */
+    public static int lastIndexOfNonBlank(CharSequence s, boolean unicode) {
+        if (s == null) return -1;
+        for (int i = s.length() - 1; i >= 0; i--) {
+            if (!isBlankChar(s.charAt(i), unicode)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 是否空白字符：不大于' '的字符（与String.trim一致）；
+     * unicode为true时还包括Unicode空白，如全角空格U+3000、不换行空格U+00A0，以及BOM U+FEFF
+     */
+    public static boolean isBlankChar(char c, boolean unicode) {
+        if (c <= ' ') return true;
+        if (!unicode || c < 0x80) return false;
+        return Character.isSpaceChar(c) || Character.isWhitespace(c) || c == '\uFEFF';
     }
 
     /**
@@ -131,6 +218,10 @@ public class StringUtil {
         return !isBlank(e);
     }
 
+    public static boolean isNotBlank(CharSequence e) {
+        return !isBlank(e);
+    }
+
     /**
      * 所有元素都不为空
      *
@@ -207,6 +298,8 @@ public class StringUtil {
     public static String[] splitStr(String str, String... delimiter) {
         if (isEmpty(str) || delimiter == null || delimiter.length == 0) return null;
         for (String s : delimiter) {
+            String literal = s == null ? null : Splitter.literalOf(s);
+            if (s == null || (literal != null && !str.contains(literal))) continue;
             List<String> result = split(str, s);
             if (result != null && result.size() > 1) return result.toArray(new String[0]);
         }
@@ -214,7 +307,7 @@ public class StringUtil {
     }
 
     /*
-     * 分隔
+     * 分隔，分隔符按正则处理，与String.split一致；不含正则元字符的分隔符按字面量查找，不编译正则
      * @param original 数据源
      * @param separator  分隔符
      */
@@ -223,8 +316,12 @@ public class StringUtil {
         if (separator == null) return ListUtil.asList(original);
         if (StringUtil.isEmpty(original)) return ListUtil.emptyList();
 
-        String[] splitInfo = original.split(separator);
-        return ListUtil.asList(splitInfo);
+        List<String> r = Splitter.onSplitRegex(separator).splitToList(original);
+        // 与String.split一致，去掉末尾的空字符串
+        int n = r.size();
+        while (n > 0 && r.get(n - 1).isEmpty()) n--;
+        if (n < r.size()) r.subList(n, r.size()).clear();
+        return r;
     }
 
     /**
@@ -292,6 +389,8 @@ public class StringUtil {
 
     /**
      * 指定元素中是否存在指定值（模糊查）
+     * <p>
+     * 每个关键词扫描一遍元素；关键词较多或反复调用时，先编译KeywordMatcher再调用anyLike(KeywordMatcher, String...)
      */
     public static boolean anyLike(List<String> keywords, String... es) {
         if (es == null || es.length <= 0 || ListUtil.isEmpty(keywords)) return false;
@@ -309,6 +408,29 @@ public class StringUtil {
         return flag;
     }
 
+    /**
+     * 指定元素中是否存在匹配器中的任一关键词，每个元素只扫描一遍
+     *
+     * @see KeywordMatcher
+     */
+    public static boolean anyLike(KeywordMatcher matcher, String... es) {
+        if (es == null || es.length <= 0 || matcher == null) return false;
+        for (String e : es) {
+            if (matcher.containsAny(e)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 指定元素中是否存在匹配器中的任一关键词，每个元素只扫描一遍
+     *
+     * @see KeywordMatcher
+     */
+    public static boolean anyLike(KeywordMatcher matcher, List<String> es) {
+        if (es == null || es.size() <= 0 || matcher == null) return false;
+        return matcher.containsAny(es);
+    }
+
 
     /**
      * 如果字符串为空字符串，返回null,否则返回原字符串
@@ -317,6 +439,15 @@ public class StringUtil {
         return isBlank(s) ? null : s;
     }
 
+    /**
+     * 如果字符串为空或者都是空白符，返回null,否则返回原字符串
+     *
+     * @param unicode 为true时Unicode空白也算空白，见isBlankChar
+     */
+    public static String blankToNull(String s, boolean unicode) {
+        return isBlank(s, unicode) ? null : s;
+    }
+
     /**
      * 判断字符串是否包含另一个字符串
      */
@@ -326,6 +457,8 @@ public class StringUtil {
 
     /**
      * 判断字符串是否包含某些字符串
+     * <p>
+     * 每个字符串扫描一遍source；字符串较多或反复调用时使用contains(String, KeywordMatcher)
      */
     public static boolean contains(String source, String... partArray) {
         if (isEmpty(source) || partArray == null || partArray.length < 1) return false;
@@ -339,6 +472,15 @@ public class StringUtil {
         return contain;
     }
 
+    /**
+     * 判断字符串是否包含匹配器中的任一关键词，只扫描一遍
+     *
+     * @see KeywordMatcher
+     */
+    public static boolean contains(String source, KeywordMatcher matcher) {
+        return isNotEmpty(source) && matcher != null && matcher.containsAny(source);
+    }
+
     /**
      * 获取字符串的长度
      */
@@ -353,6 +495,17 @@ public class StringUtil {
         return str.endsWith(tar);
     }
 
+    /**
+     * 判断字符串是否以匹配器中的任一后缀结尾，只扫描一遍
+     *
+     * @param matcher 后缀模式的匹配器，见PrefixMatcher.suffixes
+     */
+    public static boolean endWith(String str, PrefixMatcher<?> matcher) {
+        if (isEmpty(str) || matcher == null) return false;
+        if (!matcher.isSuffix()) throw new IllegalArgumentException("matcher is not in suffix mode");
+        return matcher.matches(str);
+    }
+
     /**
      * 拼接字符串,null当做空字符串
      */
@@ -405,17 +558,12 @@ public class StringUtil {
      *
      * @param text 待判断的字符串
      * @return 是否包含占用四个字节的字符
+     * @see Utf8Util
      */
     public static boolean containsFourBytesChar(String text) {
         if (isEmpty(text)) return false;
-
-        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
-        for (byte b : bytes) {
-            if ((b & 0xF8) == 0xF0) {
-                return true;
-            }
-        }
-        return false;
+        // UTF-8中4字节的字符就是合法的代理对，直接查找，不编码
+        return Utf8Util.indexOfFourByteChar(text) >= 0;
     }
 
     /**
@@ -443,27 +591,21 @@ public class StringUtil {
     }
 
     /**
-     * 判断字符串是否是一个数字
+     * 判断字符串是否是一个数字，语法与Double.parseDouble一致，不创建异常
+     *
+     * @see NumberUtil#isNumber(CharSequence)
      */
     public static boolean isNumber(String str) {
-        try {
-            Double.parseDouble(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+        return NumberUtil.isNumber(str);
     }
 
     /**
-     * 判断字符串是否是一个整数
+     * 判断字符串是否是一个整数，语法与Integer.parseInt一致，不创建异常
+     *
+     * @see NumberUtil#isInteger(CharSequence)
      */
     public static boolean isInteger(String str) {
-        try {
-            Integer.parseInt(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
+        return NumberUtil.isInteger(str);
     }
 
     /**
@@ -477,6 +619,18 @@ public class StringUtil {
         return str.startsWith(part);
     }
 
+    /**
+     * 判断字符串是否以匹配器中的任一前缀开始，只扫描一遍
+     * @param str       字符串
+     * @param matcher   前缀模式的匹配器，见PrefixMatcher.of
+     * @return  是否以任一前缀开始
+     */
+    public static boolean startWith(String str, PrefixMatcher<?> matcher) {
+        if (isEmpty(str) || matcher == null) return false;
+        if (matcher.isSuffix()) throw new IllegalArgumentException("matcher is in suffix mode");
+        return matcher.matches(str);
+    }
+
     /**
      * 判断字符串是否以小写字母开头
      * @param str   字符串
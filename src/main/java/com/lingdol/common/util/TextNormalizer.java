@@ -0,0 +1,251 @@
+package com.lingdol.common.util;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 文本规范化：全角转半角、合并空白、去首尾空白、去控制字符、去4字节字符、转小写，一次扫描完成
+ * <p>
+ * 不可变，可以复用和多线程共用。每个字符先查一张共用的字符分类表，不需要处理的字符只有一次查表；
+ * 输出数组在第一次出现变化时才分配，没有变化时返回原字符串。
+ * 处理顺序相当于：去4字节字符、去控制字符 → 全角转半角 → 转小写 → 合并空白 → 去首尾空白
+ * <pre>
+ * TextNormalizer normalizer = TextNormalizer.create().foldWidth().lowerCase().collapseWhitespace().trim();
+ * normalizer.normalize("　ＡＢＣ（新款）  手机 "); // "abc(新款) 手机"
+ * </pre>
+ */
+public final class TextNormalizer {
+
+    private static final int WHITESPACE = 1;
+    private static final int CONTROL = 2;
+    private static final int WIDE = 4;
+    private static final int UPPER = 8;
+    private static final int SURROGATE = 16;
+
+    /**
+     * 每个char的分类，按位组合
+     */
+    private static final byte[] CLASSES = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char ch = (char) c;
+            int cls = 0;
+            if (Character.isWhitespace(ch) || Character.isSpaceChar(ch)) {
+                cls |= WHITESPACE;
+            } else if (Character.isISOControl(ch) || ch == '\uFEFF') {
+                cls |= CONTROL;
+            }
+            if ((ch >= '！' && ch <= '～') || ch == '　') cls |= WIDE;
+            if (Character.toLowerCase(ch) != ch) cls |= UPPER;
+            if (Character.isSurrogate(ch)) cls |= SURROGATE;
+            CLASSES[c] = (byte) cls;
+        }
+    }
+
+    private final boolean foldWidth;
+    private final boolean lowerCase;
+    private final boolean collapseWhitespace;
+    private final boolean trim;
+    private final boolean removeControlChars;
+    private final boolean removeFourByteChars;
+    /**
+     * 需要逐个处理的字符分类
+     */
+    private final int mask;
+
+    private TextNormalizer(boolean foldWidth, boolean lowerCase, boolean collapseWhitespace, boolean trim,
+                           boolean removeControlChars, boolean removeFourByteChars) {
+        this.foldWidth = foldWidth;
+        this.lowerCase = lowerCase;
+        this.collapseWhitespace = collapseWhitespace;
+        this.trim = trim;
+        this.removeControlChars = removeControlChars;
+        this.removeFourByteChars = removeFourByteChars;
+        this.mask = (foldWidth ? WIDE : 0) | (lowerCase ? UPPER : 0) | (collapseWhitespace || trim ? WHITESPACE : 0)
+                | (removeControlChars ? CONTROL : 0) | (removeFourByteChars ? SURROGATE : 0);
+    }
+
+    /**
+     * 不做任何处理的规范化器，按需要依次开启
+     */
+    public static TextNormalizer create() {
+        return new TextNormalizer(false, false, false, false, false, false);
+    }
+
+    /**
+     * 全角ASCII（U+FF01 - U+FF5E）转为半角，全角空格U+3000转为空格
+     */
+    public TextNormalizer foldWidth() {
+        return new TextNormalizer(true, lowerCase, collapseWhitespace, trim, removeControlChars, removeFourByteChars);
+    }
+
+    /**
+     * BMP字符转小写（Character.toLowerCase），4字节字符不变
+     */
+    public TextNormalizer lowerCase() {
+        return new TextNormalizer(foldWidth, true, collapseWhitespace, trim, removeControlChars, removeFourByteChars);
+    }
+
+    /**
+     * 连续的空白（含换行、制表符、全角空格、不换行空格）合并为一个空格
+     */
+    public TextNormalizer collapseWhitespace() {
+        return new TextNormalizer(foldWidth, lowerCase, true, trim, removeControlChars, removeFourByteChars);
+    }
+
+    /**
+     * 去掉首尾空白，空白的范围同collapseWhitespace
+     */
+    public TextNormalizer trim() {
+        return new TextNormalizer(foldWidth, lowerCase, collapseWhitespace, true, removeControlChars, removeFourByteChars);
+    }
+
+    /**
+     * 去掉空白以外的控制字符和BOM（U+FEFF）
+     */
+    public TextNormalizer removeControlChars() {
+        return new TextNormalizer(foldWidth, lowerCase, collapseWhitespace, trim, true, removeFourByteChars);
+    }
+
+    /**
+     * 去掉4字节字符（合法代理对，如emoji），无法配对的代理字符替换为'?'，与Utf8Util.stripFourByteChars一致
+     */
+    public TextNormalizer removeFourByteChars() {
+        return new TextNormalizer(foldWidth, lowerCase, collapseWhitespace, trim, removeControlChars, true);
+    }
+
+    // ------------------------------------------------------------- 处理
+
+    /**
+     * 规范化文本，没有变化时返回原字符串，null返回null
+     */
+    public String normalize(String s) {
+        if (s == null) return null;
+        return new Run(s).process();
+    }
+
+    public String normalize(CharSequence s) {
+        if (s == null) return null;
+        return new Run(s).process();
+    }
+
+    /**
+     * 逐个规范化，返回新的集合，没有变化的元素原样保留
+     */
+    public List<String> normalize(List<String> list) {
+        return ListUtil.map(list, this::normalize);
+    }
+
+    /**
+     * 在ForkJoinPool.commonPool()中并行规范化，结果顺序与原集合一致；元素较少时顺序执行
+     */
+    public List<String> parallelNormalize(List<String> list) {
+        return ListUtil.parallelMap(list, this::normalize);
+    }
+
+    public List<String> parallelNormalize(List<String> list, ForkJoinPool pool) {
+        return ListUtil.parallelMap(list, this::normalize, pool);
+    }
+
+    /**
+     * 一次处理的状态；输出与输入前缀相同时只记录长度，出现第一个不同的字符时才分配数组
+     */
+    private final class Run {
+        private final CharSequence s;
+        private char[] out;
+        private int length;
+        /**
+         * 尚未输出的空白区间的起点，没有时为-1
+         */
+        private int spaceStart = -1;
+
+        Run(CharSequence s) {
+            this.s = s;
+        }
+
+        String process() {
+            int n = s.length();
+            for (int i = 0; i < n; i++) {
+                char c = s.charAt(i);
+                int cls = CLASSES[c] & mask;
+                if (cls == 0) {
+                    flushSpace(i);
+                    emit(c, i);
+                    continue;
+                }
+                if ((cls & SURROGATE) != 0) {
+                    // 去掉的代理对与控制字符一样不打断空白区间
+                    if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        i++;
+                    } else {
+                        flushSpace(i);
+                        emit('?', i);
+                    }
+                    continue;
+                }
+                if ((cls & CONTROL) != 0) continue;
+                if ((cls & WHITESPACE) != 0) {
+                    if (spaceStart < 0) spaceStart = i;
+                    continue;
+                }
+                flushSpace(i);
+                emit(map(c), i);
+            }
+            // 末尾的空白
+            if (spaceStart >= 0 && !trim) flushSpace(n);
+
+            if (out != null) return new String(out, 0, length);
+            if (length == n) return s.toString();
+            return s.subSequence(0, length).toString();
+        }
+
+        /**
+         * 输出[spaceStart, end)的空白；开头的空白在trim时丢弃
+         */
+        private void flushSpace(int end) {
+            if (spaceStart < 0) return;
+            int start = spaceStart;
+            spaceStart = -1;
+            if (trim && length == 0) return;
+            if (collapseWhitespace) {
+                emit(' ', start);
+                return;
+            }
+            for (int i = start; i < end; i++) {
+                char c = s.charAt(i);
+                // 区间中可能夹着被去掉的控制字符
+                if ((CLASSES[c] & WHITESPACE) != 0) emit(map(c), i);
+            }
+        }
+
+        private char map(char c) {
+            if (foldWidth) {
+                if (c >= '！' && c <= '～') {
+                    c = (char) (c - 0xFEE0);
+                } else if (c == '　') {
+                    c = ' ';
+                }
+            }
+            if (lowerCase) c = Character.toLowerCase(c);
+            return c;
+        }
+
+        /**
+         * 输出字符c，对应输入的下标index
+         */
+        private void emit(char c, int index) {
+            if (out == null) {
+                if (length == index && s.charAt(index) == c) {
+                    length++;
+                    return;
+                }
+                out = new char[s.length()];
+                for (int i = 0; i < length; i++) {
+                    out[i] = s.charAt(i);
+                }
+            }
+            out[length++] = c;
+        }
+    }
+}
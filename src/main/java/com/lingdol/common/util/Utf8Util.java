@@ -0,0 +1,176 @@
+package com.lingdol.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按UTF-8字节数处理字符串，直接扫描char，不编码成byte[]
+ * <p>
+ * 结果与String.getBytes(UTF_8)一致：U+0080以下1字节，U+0800以下2字节，其余BMP字符3字节，
+ * 合法的代理对（BMP以外的字符，如emoji）4字节，无法配对的代理字符编码为'?'占1字节。
+ * 用于写入utf8（utf8mb3）的MySQL字段前检查长度、去掉4字节字符。
+ * 不需要修改时返回原字符串
+ */
+public class Utf8Util {
+
+    /**
+     * UTF-8编码后的字节数
+     */
+    public static int utf8Length(CharSequence s) {
+        if (s == null) return 0;
+        int n = s.length();
+        long length = n;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                length += 1;
+            } else if (Character.isSurrogate(c)) {
+                if (isPair(s, i, n)) {
+                    // 两个char共4字节
+                    length += 2;
+                    i++;
+                }
+            } else {
+                length += 2;
+            }
+        }
+        return (int) Math.min(length, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 第一个4字节字符（合法代理对）的下标，没有时返回-1
+     */
+    public static int indexOfFourByteChar(CharSequence s) {
+        if (s == null) return -1;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (isPair(s, i, n)) return i;
+        }
+        return -1;
+    }
+
+    public static boolean containsFourByteChar(CharSequence s) {
+        return indexOfFourByteChar(s) >= 0;
+    }
+
+    /**
+     * 截取UTF-8编码不超过maxBytes字节的最长前缀，不会截断代理对
+     *
+     * @param maxBytes 最大字节数，不能为负数
+     */
+    public static String truncateToUtf8Bytes(String s, int maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        if (s == null) return null;
+        // 每个char最多3字节，足够短时不用扫描
+        if ((long) s.length() * 3 <= maxBytes) return s;
+        int n = s.length();
+        long length = 0;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            int bytes;
+            int chars = 1;
+            if (c < 0x80) {
+                bytes = 1;
+            } else if (c < 0x800) {
+                bytes = 2;
+            } else if (Character.isSurrogate(c)) {
+                if (isPair(s, i, n)) {
+                    bytes = 4;
+                    chars = 2;
+                } else {
+                    bytes = 1;
+                }
+            } else {
+                bytes = 3;
+            }
+            if (length + bytes > maxBytes) return s.substring(0, i);
+            length += bytes;
+            i += chars - 1;
+        }
+        return s;
+    }
+
+    /**
+     * 去掉4字节字符（合法代理对）；无法配对的代理字符替换为'?'，与UTF-8编码的结果一致，
+     * 这样去掉代理对后两侧的单个代理字符不会拼成新的代理对
+     */
+    public static String stripFourByteChars(String s) {
+        return replaceFourByteChars(s, StringUtil.EMPTY);
+    }
+
+    /**
+     * 将每个4字节字符（合法代理对）替换为replacement；无法配对的代理字符替换为'?'
+     */
+    public static String replaceFourByteChars(String s, String replacement) {
+        if (s == null) return null;
+        int n = s.length();
+        int first = 0;
+        while (first < n && !Character.isSurrogate(s.charAt(first))) first++;
+        if (first == n) return s;
+        if (replacement == null) replacement = StringUtil.EMPTY;
+        StringBuilder sb = new StringBuilder(n + replacement.length());
+        sb.append(s, 0, first);
+        for (int i = first; i < n; i++) {
+            char c = s.charAt(i);
+            if (!Character.isSurrogate(c)) {
+                sb.append(c);
+            } else if (isPair(s, i, n)) {
+                sb.append(replacement);
+                i++;
+            } else {
+                sb.append('?');
+            }
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------- 批量
+
+    /**
+     * 每个元素截取到不超过maxBytes字节，返回新的集合，不需要截取的元素原样保留
+     */
+    public static List<String> truncateToUtf8Bytes(List<String> list, int maxBytes) {
+        if (list == null) return null;
+        List<String> r = new ArrayList<>(list.size());
+        for (String s : list) {
+            r.add(truncateToUtf8Bytes(s, maxBytes));
+        }
+        return r;
+    }
+
+    /**
+     * 每个元素去掉4字节字符，返回新的集合，不含代理字符的元素原样保留
+     */
+    public static List<String> stripFourByteChars(List<String> list) {
+        return replaceFourByteChars(list, StringUtil.EMPTY);
+    }
+
+    public static List<String> replaceFourByteChars(List<String> list, String replacement) {
+        if (list == null) return null;
+        List<String> r = new ArrayList<>(list.size());
+        for (String s : list) {
+            r.add(replaceFourByteChars(s, replacement));
+        }
+        return r;
+    }
+
+    /**
+     * 是否有元素包含4字节字符
+     */
+    public static boolean containsFourByteChar(List<String> list) {
+        if (list == null) return false;
+        for (String s : list) {
+            if (indexOfFourByteChar(s) >= 0) return true;
+        }
+        return false;
+    }
+
+    // ------------------------------------------------------------- 内部
+
+    /**
+     * i处是否是合法代理对的高位
+     */
+    private static boolean isPair(CharSequence s, int i, int n) {
+        return Character.isHighSurrogate(s.charAt(i)) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1));
+    }
+}
@@ -0,0 +1,129 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.BatchExecutor;
+import com.lingdol.common.util.ListUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchExecutorTest {
+
+    @Test
+    public void orderAndParallelismTest() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            source.add(i);
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Integer> result = ListUtil.batch(source, 7, 3, chunk -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return ListUtil.map(chunk, i -> i * 2);
+        });
+
+        Assert.assertEquals(ListUtil.map(source, i -> i * 2), result);
+        Assert.assertTrue(peak.get() <= 3);
+    }
+
+    @Test
+    public void errorModeTest() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            source.add(i);
+        }
+        BatchExecutor<Integer, Integer> executor = BatchExecutor.<Integer, Integer>of(chunk -> {
+            if (chunk.contains(42)) throw new IllegalStateException("bad chunk");
+            return chunk;
+        }).chunkSize(10).parallelism(2);
+
+        try {
+            executor.execute(source);
+            Assert.fail();
+        } catch (BatchExecutor.BatchException e) {
+            Assert.assertEquals(4, e.getErrors().get(0).getIndex());
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        BatchExecutor.BatchResult<Integer> result = executor.errorMode(BatchExecutor.ErrorMode.COLLECT)
+                .execute(source.iterator());
+        Assert.assertEquals(90, result.getResults().size());
+        Assert.assertEquals(1, result.getErrors().size());
+    }
+
+    @Test
+    public void timeoutTest() {
+        BatchExecutor.BatchResult<Integer> result = BatchExecutor.<Integer, Integer>of(chunk -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return chunk;
+        }).timeout(50, TimeUnit.MILLISECONDS).errorMode(BatchExecutor.ErrorMode.COLLECT)
+                .execute(ListUtil.asList(1, 2, 3));
+
+        Assert.assertTrue(result.getErrors().get(0).getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    public void timeoutKeepsPermitTest() {
+        // 不响应中断的批次超时后仍在执行，不能让下一批提前开始
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService pool = Executors.newCachedThreadPool();
+        BatchExecutor.BatchResult<Integer> result = BatchExecutor.<Integer, Integer>of(chunk -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+            while (System.nanoTime() < end) {
+                // 忙等，忽略中断
+            }
+            running.decrementAndGet();
+            return chunk;
+        }).chunkSize(1).parallelism(1).timeout(20, TimeUnit.MILLISECONDS)
+                .errorMode(BatchExecutor.ErrorMode.COLLECT).executor(pool)
+                .execute(ListUtil.asList(1, 2, 3));
+        pool.shutdown();
+
+        Assert.assertEquals(3, result.getErrors().size());
+        Assert.assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void failFastTimeoutReturnsPromptlyTest() {
+        // 超时的批次不响应中断，FAIL_FAST不应等到它返回
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService pool = Executors.newCachedThreadPool();
+        long start = System.nanoTime();
+        try {
+            BatchExecutor.<Integer, Integer>of(chunk -> {
+                long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+                while (!stop.get() && System.nanoTime() < end) {
+                    // 忙等，忽略中断
+                }
+                return chunk;
+            }).chunkSize(1).parallelism(1).timeout(100, TimeUnit.MILLISECONDS).executor(pool)
+                    .execute(ListUtil.asList(1, 2, 3));
+            Assert.fail();
+        } catch (BatchExecutor.BatchException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        } finally {
+            stop.set(true);
+            pool.shutdown();
+        }
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+}
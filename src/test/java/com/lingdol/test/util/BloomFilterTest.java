@@ -0,0 +1,124 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.BloomFilter;
+import com.lingdol.common.util.CuckooFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BloomFilterTest {
+
+    @Test
+    public void bloomFilter() throws Exception {
+        int n = 100000;
+        BloomFilter filter = BloomFilter.create(n, 0.01);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int from = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = from; i < n; i += 4) {
+                        filter.put("key-" + i);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.mightContain("key-" + i));
+        }
+        Assert.assertTrue(falsePositives(filter, n) < n * 0.015);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(filter.serializedSizeInBytes() + 3);
+        buffer.position(3);
+        filter.serialize(buffer);
+        buffer.position(3);
+        BloomFilter wrapped = BloomFilter.wrap(buffer);
+        Assert.assertEquals(buffer.capacity(), buffer.position());
+        Assert.assertTrue(wrapped.isReadOnly());
+        Assert.assertTrue(wrapped.mightContain("key-7"));
+        Assert.assertEquals(falsePositives(filter, n), falsePositives(wrapped, n));
+        try {
+            wrapped.put("x");
+            Assert.fail();
+        } catch (UnsupportedOperationException expected) {
+            // 只读
+        }
+
+        BloomFilter copy = BloomFilter.deserialize(ByteBuffer.wrap(filter.toByteArray()));
+        BloomFilter other = BloomFilter.create(n, 0.01);
+        other.put(42L);
+        other.put("bytes".getBytes(StandardCharsets.UTF_8));
+        Assert.assertFalse(copy.mightContain(42L));
+        copy.merge(other).merge(wrapped);
+        Assert.assertTrue(copy.mightContain(42L));
+        Assert.assertTrue(copy.mightContain("bytes".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertTrue(copy.mightContain("key-99"));
+    }
+
+    @Test
+    public void cuckooFilter() {
+        int n = 50000;
+        CuckooFilter filter = CuckooFilter.create(n);
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.put("key-" + i));
+        }
+        Assert.assertEquals(n, filter.size());
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(filter.mightContain("key-" + i));
+        }
+        int fp = 0;
+        for (int i = n; i < 2 * n; i++) {
+            if (filter.mightContain("key-" + i)) fp++;
+        }
+        Assert.assertTrue(fp < n * 0.002);
+
+        for (int i = 0; i < n; i += 2) {
+            Assert.assertTrue(filter.delete("key-" + i));
+        }
+        Assert.assertEquals(n / 2, filter.size());
+        for (int i = 1; i < n; i += 2) {
+            Assert.assertTrue(filter.mightContain("key-" + i));
+        }
+
+        CuckooFilter copy = CuckooFilter.deserialize(ByteBuffer.wrap(filter.toByteArray()));
+        Assert.assertEquals(filter.size(), copy.size());
+        CuckooFilter other = CuckooFilter.create(n);
+        other.put(7L);
+        Assert.assertTrue(copy.merge(other));
+        Assert.assertTrue(copy.mightContain(7L));
+        Assert.assertTrue(copy.mightContain("key-1"));
+
+        CuckooFilter small = CuckooFilter.create(100);
+        int added = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (!small.put(i)) break;
+            added++;
+        }
+        Assert.assertTrue(added >= 100 && added <= small.capacity());
+        for (int i = 0; i < added; i++) {
+            Assert.assertTrue(small.mightContain(i));
+        }
+    }
+
+    private static int falsePositives(BloomFilter filter, int n) {
+        int fp = 0;
+        for (int i = n; i < 2 * n; i++) {
+            if (filter.mightContain("key-" + i)) fp++;
+        }
+        return fp;
+    }
+}
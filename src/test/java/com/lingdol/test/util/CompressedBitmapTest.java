@@ -0,0 +1,116 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.CompressedBitmap;
+import com.lingdol.common.util.ListUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class CompressedBitmapTest {
+
+    @Test
+    public void operationTest() {
+        Random random = new Random(3);
+        for (int round = 0; round < 10; round++) {
+            TreeSet<Integer> s1 = randomSet(random);
+            TreeSet<Integer> s2 = randomSet(random);
+            CompressedBitmap b1 = toBitmap(s1);
+            CompressedBitmap b2 = toBitmap(s2);
+            if (round % 2 == 0) b1.runOptimize();
+
+            TreeSet<Integer> and = new TreeSet<>(s1);
+            and.retainAll(s2);
+            TreeSet<Integer> or = new TreeSet<>(s1);
+            or.addAll(s2);
+            TreeSet<Integer> andNot = new TreeSet<>(s1);
+            andNot.removeAll(s2);
+
+            assertSame(and, CompressedBitmap.and(b1, b2));
+            assertSame(or, CompressedBitmap.or(b1, b2));
+            assertSame(andNot, CompressedBitmap.andNot(b1, b2));
+            Assert.assertEquals(and.size(), CompressedBitmap.andCardinality(b1, b2));
+            Assert.assertEquals(!and.isEmpty(), CompressedBitmap.intersects(b1, b2));
+
+            CompressedBitmap copy = CompressedBitmap.deserialize(ByteBuffer.wrap(b1.toByteArray()));
+            Assert.assertEquals(b1, copy);
+            assertSame(and, copy.and(b2));
+            assertSame(andNot, CompressedBitmap.deserialize(ByteBuffer.wrap(b1.toByteArray())).andNot(b2));
+            assertSame(or, CompressedBitmap.deserialize(ByteBuffer.wrap(b1.toByteArray())).or(b2));
+        }
+    }
+
+    @Test
+    public void runContainerTest() {
+        CompressedBitmap range = new CompressedBitmap();
+        for (int i = 0; i < 200000; i++) {
+            range.add(i);
+        }
+        int plainBytes = range.serializedSizeInBytes();
+        range.runOptimize();
+        Assert.assertTrue(range.serializedSizeInBytes() < plainBytes / 100);
+        Assert.assertEquals(200000, range.getCardinality());
+
+        range.remove(100);
+        range.add(300000);
+        Assert.assertFalse(range.contains(100));
+        Assert.assertTrue(range.contains(300000));
+        Assert.assertEquals(200000, range.getCardinality());
+        Assert.assertEquals(range, CompressedBitmap.deserialize(ByteBuffer.wrap(range.runOptimize().toByteArray())));
+    }
+
+    @Test
+    public void listAdapterTest() {
+        List<Integer> t1 = new ArrayList<>();
+        List<Integer> t2 = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            t1.add(i * 3 % 10007);
+            t2.add(i * 7 + 5000);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (Integer c : t1) {
+            if (t2.contains(c) && !expected.contains(c)) expected.add(c);
+        }
+        Assert.assertEquals(expected, ListUtil.intersection(t1, t2));
+        Assert.assertTrue(ListUtil.existIntersection(t1, t2));
+    }
+
+    private static TreeSet<Integer> randomSet(Random random) {
+        TreeSet<Integer> s = new TreeSet<>();
+        int n = random.nextInt(20000);
+        for (int i = 0; i < n; i++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    s.add(random.nextInt(1 << 18));
+                    break;
+                case 1:
+                    int start = random.nextInt(1 << 18);
+                    int length = random.nextInt(2000) == 0 ? 20000 : 50;
+                    for (int j = 0; j < length; j++) s.add(start + j);
+                    break;
+                default:
+                    s.add(random.nextInt());
+            }
+        }
+        return s;
+    }
+
+    private static CompressedBitmap toBitmap(TreeSet<Integer> s) {
+        CompressedBitmap b = new CompressedBitmap();
+        for (Integer v : s) {
+            b.add(v);
+        }
+        return b;
+    }
+
+    private static void assertSame(TreeSet<Integer> expected, CompressedBitmap actual) {
+        Assert.assertEquals(expected.size(), actual.getCardinality());
+        for (Integer v : expected) {
+            Assert.assertTrue(actual.contains(v));
+        }
+    }
+}
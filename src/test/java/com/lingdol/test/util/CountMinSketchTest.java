@@ -0,0 +1,95 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.CountMinSketch;
+import com.lingdol.common.util.HeavyHitters;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void countMinSketch() throws Exception {
+        CountMinSketch cms = CountMinSketch.create(0.001, 0.01);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 100000; i++) {
+            String key = "k" + (int) Math.abs(random.nextGaussian() * 500);
+            cms.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+        Assert.assertEquals(100000, cms.totalCount());
+        for (Map.Entry<String, Long> e : exact.entrySet()) {
+            long estimate = cms.estimate(e.getKey());
+            Assert.assertTrue(estimate >= e.getValue());
+            Assert.assertTrue(estimate - e.getValue() <= 0.001 * 100000 * 3);
+        }
+
+        CountMinSketch copy = CountMinSketch.deserialize(ByteBuffer.wrap(cms.toByteArray()));
+        Assert.assertEquals(cms.estimate("k0"), copy.estimate("k0"));
+        copy.merge(cms.snapshot());
+        Assert.assertEquals(2 * cms.estimate("k0"), copy.estimate("k0"));
+        copy.decay(0.5);
+        Assert.assertEquals(cms.estimate("k0"), copy.estimate("k0"));
+        Assert.assertEquals(cms.totalCount(), copy.totalCount());
+
+        CountMinSketch shared = CountMinSketch.create(4, 1024);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        shared.add(i % 10, 1);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(shared.estimate(i) >= 4000);
+        }
+    }
+
+    @Test
+    public void heavyHitters() {
+        HeavyHitters<String> hot = HeavyHitters.create(5);
+        Random random = new Random(4);
+        for (int i = 0; i < 200000; i++) {
+            int r = random.nextInt(100);
+            String key = r < 50 ? "hot-" + (r % 5) : "cold-" + random.nextInt(100000);
+            hot.add(key);
+        }
+        List<Map.Entry<String, Long>> top = hot.topK();
+        Assert.assertEquals(5, top.size());
+        for (Map.Entry<String, Long> e : top) {
+            Assert.assertTrue(e.getKey(), e.getKey().startsWith("hot-"));
+            Assert.assertTrue(e.getValue() >= 19000);
+        }
+        for (int i = 1; i < top.size(); i++) {
+            Assert.assertTrue(top.get(i - 1).getValue() >= top.get(i).getValue());
+        }
+
+        HeavyHitters<String> other = hot.snapshot();
+        for (int i = 0; i < 100000; i++) {
+            other.add("burst");
+        }
+        hot.merge(other);
+        Assert.assertEquals("burst", hot.topK().get(0).getKey());
+        hot.decay(0.5);
+        Assert.assertTrue(hot.topK().get(0).getValue() >= 50000);
+    }
+}
@@ -0,0 +1,82 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.HashUtil;
+import com.lingdol.common.util.ListUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class HashUtilTest {
+
+    @Test
+    public void murmur3() {
+        Assert.assertEquals(0xcbd8a7b341bd9b02L, HashUtil.hash64("hello".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(0, HashUtil.hash64(new byte[0]));
+
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            String s = sb.toString();
+            Assert.assertEquals(HashUtil.hash64(s.getBytes(StandardCharsets.UTF_16LE)), HashUtil.hash64(s));
+            sb.append((char) random.nextInt(0x3000));
+        }
+
+        byte[] data = new byte[64];
+        random.nextBytes(data);
+        byte[] part = new byte[37];
+        System.arraycopy(data, 5, part, 0, part.length);
+        Assert.assertEquals(HashUtil.hash64(part), HashUtil.hash64(data, 5, part.length, 0));
+    }
+
+    @Test
+    public void jumpHash() {
+        Random random = new Random(2);
+        for (int i = 0; i < 1000; i++) {
+            long key = random.nextLong();
+            int last = HashUtil.jumpHash(key, 1);
+            Assert.assertEquals(0, last);
+            for (int n = 2; n < 50; n++) {
+                int b = HashUtil.jumpHash(key, n);
+                Assert.assertTrue(b == last || b == n - 1);
+                last = b;
+            }
+        }
+    }
+
+    @Test
+    public void splitByHash() {
+        List<String> source = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            source.add("tenant-" + i % 37);
+        }
+        List<List<List<String>>> splits = new ArrayList<>();
+        splits.add(ListUtil.splitByHash(source, 8, s -> s));
+        splits.add(ListUtil.splitByConsistentHash(source, 8, s -> s));
+        for (List<List<String>> shards : splits) {
+            Assert.assertEquals(8, shards.size());
+            int total = 0;
+            for (List<String> shard : shards) {
+                total += shard.size();
+                for (String s : shard) {
+                    for (List<String> other : shards) {
+                        Assert.assertTrue(other == shard || !other.contains(s));
+                    }
+                }
+            }
+            Assert.assertEquals(source.size(), total);
+        }
+        Assert.assertEquals(HashUtil.bucket(HashUtil.hash64("tenant-1"), 8),
+                indexOf(ListUtil.splitByHash(source, 8, s -> s), "tenant-1"));
+    }
+
+    private static int indexOf(List<List<String>> shards, String s) {
+        for (int i = 0; i < shards.size(); i++) {
+            if (shards.get(i).contains(s)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,121 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.HyperLogLog;
+import com.lingdol.common.util.ListUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void estimate() {
+        for (int n : new int[]{0, 1, 10, 1000, 5000, 100000, 1000000}) {
+            HyperLogLog hll = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                hll.add("buyer-" + i);
+                hll.add("buyer-" + (i / 2));
+            }
+            assertClose(n, hll.cardinality(), n <= 1000 ? 0.005 : 0.03);
+            HyperLogLog copy = HyperLogLog.deserialize(ByteBuffer.wrap(hll.toByteArray()));
+            Assert.assertEquals(hll.isSparse(), copy.isSparse());
+            Assert.assertEquals(hll.cardinality(), copy.cardinality());
+        }
+        Assert.assertTrue(new HyperLogLog().isSparse());
+    }
+
+    @Test
+    public void merge() {
+        HyperLogLog sparse = new HyperLogLog(12);
+        HyperLogLog dense = new HyperLogLog(12);
+        HyperLogLog all = new HyperLogLog(12);
+        for (int i = 0; i < 200; i++) {
+            sparse.add(i);
+            all.add(i);
+        }
+        for (int i = 100; i < 50000; i++) {
+            dense.add(i);
+            all.add(i);
+        }
+        Assert.assertTrue(sparse.isSparse());
+        Assert.assertFalse(dense.isSparse());
+
+        HyperLogLog a = HyperLogLog.deserialize(ByteBuffer.wrap(sparse.toByteArray())).merge(dense);
+        HyperLogLog b = HyperLogLog.deserialize(ByteBuffer.wrap(dense.toByteArray())).merge(sparse);
+        Assert.assertEquals(all.cardinality(), a.cardinality());
+        Assert.assertEquals(all.cardinality(), b.cardinality());
+        assertClose(50000, a.cardinality(), 0.05);
+
+        HyperLogLog s2 = new HyperLogLog(12);
+        for (int i = 150; i < 400; i++) {
+            s2.add(i);
+        }
+        assertClose(400, new HyperLogLog(12).merge(sparse).merge(s2).cardinality(), 0.005);
+
+        // 两个稀疏计数器合并后超过稀疏上限，合并过程中转为稠密
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        for (int i = 0; i < 900; i++) {
+            left.add(i);
+            right.add(i + 900);
+        }
+        Assert.assertTrue(left.isSparse());
+        Assert.assertTrue(right.isSparse());
+        left.merge(right);
+        Assert.assertFalse(left.isSparse());
+        assertClose(1800, left.cardinality(), 0.03);
+
+        try {
+            sparse.merge(new HyperLogLog());
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+            // 精度不同
+        }
+    }
+
+    @Test
+    public void sparseToDenseBoundary() {
+        // 缓冲区中还有未合并的项时，flush会在读取前转为稠密
+        for (int n = 1000; n <= 1300; n += 7) {
+            HyperLogLog a = new HyperLogLog(12);
+            HyperLogLog b = new HyperLogLog(12);
+            HyperLogLog c = new HyperLogLog(12);
+            for (int i = 0; i < n; i++) {
+                a.add(i);
+                b.add(i);
+                c.add(i);
+            }
+            assertClose(n, a.cardinality(), 0.03);
+            Assert.assertEquals(b.serializedSizeInBytes(), b.toByteArray().length);
+            HyperLogLog copy = HyperLogLog.deserialize(ByteBuffer.wrap(c.toByteArray()));
+            Assert.assertEquals(c.cardinality(), copy.cardinality());
+            assertClose(n, copy.cardinality(), 0.03);
+        }
+
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 4100; i++) {
+            keys.add(i);
+        }
+        assertClose(4100, ListUtil.approxDistinctCount(keys, i -> i), 0.03);
+    }
+
+    @Test
+    public void listAdapter() {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 30000; i++) {
+            list.add(i % 7000);
+        }
+        assertClose(7000, ListUtil.approxDistinctCount(list, i -> "sku-" + i), 0.03);
+        assertClose(7000, IntStream.range(0, 200000).boxed().parallel()
+                .collect(ListUtil.approxDistinctCounting(i -> i % 7000)), 0.03);
+        Assert.assertEquals(0, ListUtil.approxDistinctCount(null, i -> i));
+    }
+
+    private static void assertClose(long expected, long actual, double error) {
+        Assert.assertTrue(expected + " ~ " + actual, Math.abs(expected - actual) <= Math.max(1, expected * error));
+    }
+}
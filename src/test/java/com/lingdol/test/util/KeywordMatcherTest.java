@@ -0,0 +1,79 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.KeywordMatcher;
+import com.lingdol.common.util.ListUtil;
+import com.lingdol.common.util.StringUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+public class KeywordMatcherTest {
+
+    @Test
+    public void matchTest() {
+        KeywordMatcher matcher = KeywordMatcher.of("he", "she", "his", "hers");
+        Assert.assertTrue(matcher.containsAny("ushers"));
+        Assert.assertFalse(matcher.containsAny("hi"));
+        Assert.assertEquals("[she@1, he@2, hers@2]", matcher.findAll("ushers").toString());
+        Assert.assertEquals("she", matcher.findFirst("ushers").getKeyword());
+        Assert.assertNull(matcher.findFirst("xyz"));
+        Assert.assertEquals(Arrays.asList("he", "his", "she"), matcher.matchedKeywords("hehishe"));
+
+        KeywordMatcher folded = KeywordMatcher.of(Arrays.asList("iPhone", "手机"), KeywordMatcher.IGNORE_CASE | KeywordMatcher.FOLD_WIDTH);
+        KeywordMatcher.Match m = folded.findFirst("全新ＩＰＨＯＮＥ　壳");
+        Assert.assertEquals("iPhone", m.getKeyword());
+        Assert.assertEquals(2, m.getStart());
+        Assert.assertEquals(8, m.getEnd());
+        Assert.assertFalse(KeywordMatcher.of("iPhone").containsAny("IPHONE"));
+        Assert.assertTrue(KeywordMatcher.of("", "x").containsAny("abc"));
+        Assert.assertFalse(KeywordMatcher.of((String) null).containsAny("abc"));
+
+        Assert.assertTrue(StringUtil.contains("买手机送壳", folded));
+        Assert.assertTrue(StringUtil.anyLike(folded, "a", "b", "IPHONE 15"));
+        Assert.assertFalse(StringUtil.anyLike(folded, "a", "b"));
+        Assert.assertTrue(ListUtil.like(Arrays.asList("x", "手机"), folded));
+    }
+
+    @Test
+    public void randomTest() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<String> keywords = new ArrayList<>();
+            for (int i = random.nextInt(30) + 1; i > 0; i--) {
+                keywords.add(randomText(random, random.nextInt(4) + 1));
+            }
+            KeywordMatcher matcher = KeywordMatcher.of(keywords);
+            for (int t = 0; t < 20; t++) {
+                String text = randomText(random, random.nextInt(40));
+                int expected = 0;
+                boolean any = false;
+                for (String keyword : new LinkedHashSet<>(keywords)) {
+                    for (int i = text.indexOf(keyword); i >= 0; i = text.indexOf(keyword, i + 1)) {
+                        expected++;
+                    }
+                    any |= text.contains(keyword);
+                }
+                Assert.assertEquals(any, matcher.containsAny(text));
+                Assert.assertEquals(any, StringUtil.anyLike(keywords, text));
+                List<KeywordMatcher.Match> matches = matcher.findAll(text);
+                Assert.assertEquals(expected, matches.size());
+                for (KeywordMatcher.Match m : matches) {
+                    Assert.assertEquals(m.getKeyword(), text.substring(m.getStart(), m.getEnd()));
+                }
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        char[] cs = new char[length];
+        for (int i = 0; i < length; i++) {
+            cs[i] = "abc中".charAt(random.nextInt(4));
+        }
+        return new String(cs);
+    }
+}
@@ -0,0 +1,455 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.ArrayUtil;
+import com.lingdol.common.util.IndexedList;
+import com.lingdol.common.util.IntList;
+import com.lingdol.common.util.ListDiff;
+import com.lingdol.common.util.ListUtil;
+import com.lingdol.common.util.LongList;
+import com.lingdol.common.util.MapUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class ListUtilTest {
+
+    @Test
+    public void setAlgebraTest() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<Integer> t1 = randomList(random, random.nextInt(300) + 1);
+            List<Integer> t2 = randomList(random, random.nextInt(300) + 1);
+            if (round % 5 == 0) {
+                Collections.sort(t1);
+                Collections.sort(t2);
+            }
+            Assert.assertEquals(naiveIntersection(t1, t2), ListUtil.intersection(t1, t2));
+            Assert.assertEquals(naiveDifference(t1, t2), ListUtil.difference(t1, t2));
+            Assert.assertEquals(naiveDeDuplicate(t1), ListUtil.deDuplicate(t1));
+            if (round % 5 == 0) {
+                // 有序的LinkedList走归并路径
+                List<Integer> l1 = new LinkedList<>(t1);
+                List<Integer> l2 = new LinkedList<>(t2);
+                Assert.assertEquals(naiveIntersection(t1, t2), ListUtil.intersectionBy(l1, l2, i -> i));
+                Assert.assertEquals(naiveDifference(t1, t2), ListUtil.difference(l1, l2));
+                Assert.assertEquals(naiveDeDuplicate(t1), ListUtil.deDuplicate(l1));
+            }
+        }
+    }
+
+    @Test
+    public void setAlgebraMixedTypeTest() {
+        // 两边各自有序但key类型不同，不能归并
+        List<Number> ints = new ArrayList<>();
+        List<Number> longs = new ArrayList<>();
+        List<Object> strings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ints.add(i);
+            longs.add((long) i);
+            strings.add(String.valueOf(i + 1000));
+        }
+        Assert.assertEquals(Collections.emptyList(), ListUtil.intersection(ints, longs));
+        List<Number> both = new ArrayList<>(ints);
+        both.addAll(longs);
+        Assert.assertEquals(both, ListUtil.difference(ints, longs));
+
+        List<Object> objects = new ArrayList<>(ints);
+        Assert.assertEquals(Collections.emptyList(), ListUtil.intersection(objects, strings));
+        List<Object> all = new ArrayList<>(objects);
+        all.addAll(strings);
+        Assert.assertEquals(all, ListUtil.difference(objects, strings));
+    }
+
+    @Test
+    public void setAlgebraByTest() {
+        List<String> t1 = Arrays.asList("a1", "b1", "c1", "a2");
+        List<String> t2 = Arrays.asList("b9", "d9");
+        Assert.assertEquals(Arrays.asList("b1"), ListUtil.intersectionBy(t1, t2, s -> s.charAt(0)));
+        Assert.assertEquals(Arrays.asList("a1", "c1", "d9"), ListUtil.differenceBy(t1, t2, s -> s.charAt(0)));
+        Assert.assertEquals(Arrays.asList("a1", "b1", "c1"), ListUtil.deDuplicateBy(t1, s -> s.charAt(0)));
+    }
+
+    @Test
+    public void partitionTest() {
+        List<Integer> source = new ArrayList<>();
+        for (int n = 0; n < 40; n++) {
+            for (int k = 1; k < 12; k++) {
+                Assert.assertEquals(legacySplitAverage(source, k), ListUtil.splitAverage(source, k));
+                Assert.assertEquals(ListUtil.splitBySize(source, k), ListUtil.partition(source, k));
+
+                List<List<Integer>> chunks = new ArrayList<>();
+                ListUtil.chunk(source, k).forEach(chunks::add);
+                Assert.assertEquals(ListUtil.splitBySize(source, k), chunks);
+            }
+            source.add(n);
+        }
+        Assert.assertTrue(ListUtil.partition(source, 7) instanceof RandomAccess);
+    }
+
+    @Test
+    public void chunkedStreamTest() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 100_003; i++) {
+            source.add(i);
+        }
+        List<List<Integer>> expected = ListUtil.splitBySize(source, 1000);
+        Assert.assertEquals(expected, ListUtil.chunked(source.stream(), 1000).collect(Collectors.toList()));
+        Assert.assertEquals(expected, ListUtil.chunked(source.parallelStream(), 1000).collect(Collectors.toList()));
+        Assert.assertEquals(expected, ListUtil.chunked(source.stream().filter(i -> true).parallel(), 1000)
+                .collect(Collectors.toList()));
+
+        List<List<Integer>> batches = new ArrayList<>();
+        long count = source.stream().collect(ListUtil.chunking(1000, batches::add));
+        Assert.assertEquals(expected.size(), count);
+        Assert.assertEquals(expected, batches);
+    }
+
+    @Test
+    public void primitiveListTest() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            List<Integer> b1 = randomList(random, random.nextInt(500));
+            List<Integer> b2 = randomList(random, random.nextInt(500));
+            if (round % 2 == 0) {
+                Collections.sort(b1);
+                Collections.sort(b2);
+            }
+            IntList p1 = IntList.of(b1.stream().mapToInt(Integer::intValue).toArray());
+            IntList p2 = IntList.of(b2.stream().mapToInt(Integer::intValue).toArray());
+
+            Assert.assertEquals(naiveIntersection(b1, b2), ListUtil.intersection(p1, p2).toList());
+            Assert.assertEquals(b1.isEmpty() || b2.isEmpty() ? ListUtil.difference(b1, b2) : naiveDifference(b1, b2),
+                    ListUtil.difference(p1, p2).toList());
+            Assert.assertEquals(naiveDeDuplicate(b1), ListUtil.deDuplicate(p1).toList());
+            Assert.assertEquals(b1.contains(42), ListUtil.contains(p1, 42));
+        }
+
+        // 一边为null或空时与List版本一致，返回另一边本身
+        IntList some = IntList.of(3, 1, 3);
+        Assert.assertSame(some, ListUtil.difference(null, some));
+        Assert.assertSame(some, ListUtil.difference(some, new IntList()));
+        Assert.assertEquals(ListUtil.difference(null, some.toList()), ListUtil.difference(null, some).toList());
+        Assert.assertTrue(ListUtil.difference((IntList) null, null).isEmpty());
+        LongList longs = LongList.wrap(2L, 2L);
+        Assert.assertSame(longs, ListUtil.difference(null, longs));
+        Assert.assertSame(longs, ListUtil.difference(longs, null));
+
+        LongList ids = LongList.wrap(5L, 1L, 3L);
+        Assert.assertFalse(ids.isSorted());
+        Assert.assertTrue(ids.sort().contains(3L));
+        Assert.assertEquals(2, ListUtil.splitBySize(ids, 2).size());
+    }
+
+    @Test
+    public void parallelMapTest() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            source.add(i);
+        }
+        Assert.assertEquals(ListUtil.map(source, i -> i * 3), ListUtil.parallelMap(source, i -> i * 3));
+        Assert.assertEquals(ListUtil.filter(source, i -> i % 7 == 0), ListUtil.parallelFilter(source, i -> i % 7 == 0));
+
+        List<Integer> linked = new LinkedList<>(source);
+        Assert.assertEquals(ListUtil.map(source, i -> i + 1), ListUtil.parallelMap(linked, i -> i + 1));
+        Assert.assertEquals(ListUtil.map(ListUtil.filter(source, i -> i % 3 == 0), i -> -i),
+                ListUtil.filterAndMap(source, i -> i % 3 == 0, i -> -i));
+    }
+
+    @Test
+    public void seqTest() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            source.add(i % 1000);
+        }
+        int[] visited = {0};
+        List<Integer> top = ListUtil.seq(source)
+                .peek(i -> visited[0]++)
+                .filter(i -> i % 2 == 0)
+                .map(i -> i / 2)
+                .distinct()
+                .skip(5)
+                .limit(20)
+                .toList();
+        Assert.assertEquals(ListUtil.seq(source).map(i -> i / 2).filter(i -> i >= 5).limit(20).toList().size(), top.size());
+        Assert.assertEquals(Integer.valueOf(5), top.get(0));
+        Assert.assertEquals(Integer.valueOf(24), top.get(19));
+        Assert.assertTrue(visited[0] < 100);
+
+        Assert.assertEquals(ListUtil.splitBySize(source.subList(0, 95), 10),
+                ListUtil.seq(source).limit(95).chunk(10).toList());
+        Assert.assertEquals(Arrays.asList(0, 0, 1, 0, 1, 2),
+                ListUtil.seq(Arrays.asList(1, 2, 3)).flatMap(n -> source.subList(0, n)).toList());
+        Assert.assertEquals(500, ListUtil.seq(source).filter(i -> i < 500).toSet().size());
+        Assert.assertTrue(ListUtil.seq(source).anyMatch(i -> i == 999));
+        Assert.assertNull(ListUtil.seq(source).filter(i -> i < 0).first());
+    }
+
+    @Test
+    public void accessorTest() {
+        List<Integer> array = Arrays.asList(5, 3, 9, 1, 7);
+        Collection<Integer> linked = new LinkedList<>(array);
+        Collection<Integer> deque = new ArrayDeque<>(array);
+        Collection<Integer> set = new LinkedHashSet<>(array);
+        for (Collection<Integer> c : Arrays.asList(array, linked, deque, set)) {
+            Assert.assertEquals(Integer.valueOf(5), ListUtil.first(c));
+            Assert.assertEquals(Integer.valueOf(7), ListUtil.last(c));
+            Assert.assertEquals(Arrays.asList(5, 3), ListUtil.first(c, 2));
+            Assert.assertEquals(Arrays.asList(1, 7), ListUtil.last(c, 2));
+            Assert.assertEquals(Integer.valueOf(1), ListUtil.get(c, 3));
+            Assert.assertEquals(Arrays.asList(1, 3, 5), ListUtil.topN(c, 3, Comparator.naturalOrder()));
+        }
+        Assert.assertEquals(Integer.valueOf(9), ListUtil.last(new TreeSet<>(array)));
+        Assert.assertEquals(Arrays.asList(9, 7), ListUtil.topN(array, 2, Comparator.reverseOrder()));
+    }
+
+    private static <T> List<List<T>> legacySplitAverage(List<T> source, int number) {
+        if (source.isEmpty()) return Collections.emptyList();
+        int left = source.size() % number;
+        int size = source.size() / number;
+        List<List<T>> resultList = new ArrayList<>();
+        if (size > 0) {
+            int start = 0;
+            for (int i = 0; i < number; i++) {
+                if (i != 0) start += size;
+                if (i <= left && i != 0) start += 1;
+                int end = Math.min(start + size + (i < left ? 1 : 0), source.size());
+                resultList.add(new ArrayList<>(source.subList(start, end)));
+            }
+        } else {
+            for (int i = 0; i < left; i++) {
+                resultList.add(Collections.singletonList(source.get(i)));
+            }
+        }
+        return resultList;
+    }
+
+    @Test
+    public void sortBy() {
+        Random random = new Random(7);
+        for (int size : new int[]{0, 1, 5, 40, 300, 20000}) {
+            List<int[]> rows = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                rows.add(new int[]{random.nextInt(20) - 10, random.nextInt(50), i});
+            }
+
+            Comparator<int[]> byFirst = Comparator.comparingInt(r -> r[0]);
+            List<int[]> expected = new ArrayList<>(rows);
+            expected.sort(byFirst);
+            Assert.assertEquals(expected, ListUtil.sortByInt(rows, r -> r[0]));
+            Assert.assertEquals(expected, ListUtil.parallelSortByInt(rows, r -> r[0]));
+            Assert.assertEquals(expected, ListUtil.sortByLong(rows, r -> r[0]));
+            Assert.assertEquals(expected, ListUtil.parallelSortByLong(rows, r -> r[0]));
+            Assert.assertEquals(expected, ListUtil.sortByDouble(rows, r -> r[0] / 3.0));
+            Assert.assertEquals(expected, ListUtil.parallelSortByDouble(rows, r -> r[0] / 3.0));
+
+            Comparator<int[]> byBoth = byFirst.thenComparingInt(r -> r[1]);
+            expected = new ArrayList<>(rows);
+            expected.sort(byBoth);
+            Assert.assertEquals(expected, ListUtil.sortBy(rows, r -> r[0], r -> r[1]));
+            Assert.assertEquals(expected, ListUtil.parallelSortBy(rows, r -> r[0], r -> r[1]));
+            Assert.assertEquals(expected, ListUtil.sortBy(rows, r -> r, byBoth));
+        }
+
+        List<Double> doubles = Arrays.asList(1.5, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, -2.0);
+        List<Double> sorted = new ArrayList<>(doubles);
+        Collections.sort(sorted);
+        Assert.assertEquals(sorted, ListUtil.sortByDouble(doubles, d -> d));
+        Assert.assertEquals(Arrays.asList("b", "a", null), ListUtil.sortBy(Arrays.asList(null, "b", "a"), s -> s == null ? null : s.equals("a") ? 2 : 1));
+
+        List<List<Integer>> inputs = new ArrayList<>();
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            List<Integer> part = randomList(random, random.nextInt(100));
+            Collections.sort(part);
+            inputs.add(part);
+            all.addAll(part);
+        }
+        inputs.add(Collections.emptyList());
+        Collections.sort(all);
+        Assert.assertEquals(all, ListUtil.mergeSorted(inputs, Comparator.naturalOrder()));
+    }
+
+    @Test
+    public void diffBy() {
+        List<String> olds = Arrays.asList("1:a", "2:b", "3:c", "3:x", "5:e");
+        List<String> news = Arrays.asList("6:f", "2:b", "1:z", "4:d", "4:y", "5:e");
+        Function<String, String> key = s -> s.substring(0, 1);
+
+        ListDiff<String> diff = ListUtil.diffBy(olds, news, key);
+        Assert.assertEquals(Arrays.asList("6:f", "4:d", "4:y"), diff.getAdded());
+        Assert.assertEquals(Arrays.asList("3:c", "3:x"), diff.getRemoved());
+        Assert.assertEquals(1, diff.getModified().size());
+        Assert.assertEquals("1:a", diff.getModified().get(0).getOldValue());
+        Assert.assertEquals("1:z", diff.getModified().get(0).getNewValue());
+        Assert.assertEquals(Arrays.asList("2:b", "5:e"), diff.getUnchanged());
+        Assert.assertTrue(ListUtil.diffBy(news.subList(0, 4), news.subList(0, 4), key).isEmpty());
+        Assert.assertEquals(olds, ListUtil.diffBy(olds, null, key).getRemoved());
+
+        List<String> events = new ArrayList<>();
+        List<String> sortedOld = ListUtil.sortBy(olds, key::apply);
+        List<String> sortedNew = ListUtil.sortBy(news, key::apply);
+        ListUtil.diffSortedBy(sortedOld, sortedNew, key, Comparator.naturalOrder(), null, new ListDiff.Listener<String>() {
+            @Override
+            public void onAdded(String newValue) {
+                events.add("+" + newValue);
+            }
+
+            @Override
+            public void onRemoved(String oldValue) {
+                events.add("-" + oldValue);
+            }
+
+            @Override
+            public void onModified(String oldValue, String newValue) {
+                events.add("~" + newValue);
+            }
+        });
+        Assert.assertEquals(Arrays.asList("~1:z", "-3:c", "-3:x", "+4:d", "+4:y", "+6:f"), events);
+
+        try {
+            ListUtil.diffSortedBy(news, sortedOld, key, Comparator.naturalOrder(), null, new ListDiff.Listener<String>() {
+            });
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+            // 无序输入
+        }
+    }
+
+    @Test
+    public void indexedList() {
+        List<String> source = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            source.add("rule-" + i % 50);
+        }
+        IndexedList<String> list = ListUtil.indexed(source);
+        Assert.assertEquals(source, list);
+        for (int i = 0; i < IndexedList.DEFAULT_INDEX_THRESHOLD; i++) {
+            Assert.assertTrue(ListUtil.contains(list, "rule-" + i));
+        }
+        Assert.assertFalse(list.isIndexed());
+        Assert.assertEquals(7, list.indexOf("rule-7"));
+        Assert.assertTrue(list.isIndexed());
+        Assert.assertFalse(list.contains("rule-50"));
+        Assert.assertTrue(ListUtil.like(list, "rule-4"));
+
+        list.add("rule-50");
+        Assert.assertTrue(list.isIndexed());
+        Assert.assertEquals(100, list.indexOf("rule-50"));
+
+        list.remove(0);
+        Assert.assertFalse(list.isIndexed());
+        Assert.assertEquals(49, list.indexOf("rule-0"));
+        list.subList(0, 60).clear();
+        Assert.assertEquals(source.subList(61, 100), list.subList(0, 39));
+        Assert.assertEquals(-1, list.indexOf("rule-1"));
+        Assert.assertEquals(0, list.indexOf("rule-11"));
+
+        IndexedList<Integer> array = ArrayUtil.indexed(3, 1, 2);
+        Assert.assertEquals(Arrays.asList(3, 1, 2), array);
+        Assert.assertTrue(array.contains(2));
+    }
+
+    @Test
+    public void indexing() {
+        List<String> words = Arrays.asList("apple", "avocado", "banana", "blueberry", "cherry", "apple");
+        Assert.assertEquals(words.stream().collect(Collectors.groupingBy(w -> w.charAt(0))),
+                ListUtil.groupBy(words, w -> w.charAt(0)));
+        Assert.assertEquals(Arrays.asList("apple", "avocado", "apple"), ListUtil.groupBy(words, w -> w.charAt(0)).get('a'));
+        Assert.assertEquals(words.stream().collect(Collectors.toMap(w -> w.charAt(0), w -> w, (a, b) -> b)),
+                ListUtil.toMap(words, w -> w.charAt(0)));
+        Assert.assertEquals(Integer.valueOf(6), ListUtil.toMap(words, w -> w, String::length).get("banana"));
+
+        Map<String, Integer> counts = ListUtil.countBy(words, w -> w);
+        Assert.assertEquals(Integer.valueOf(2), counts.get("apple"));
+        Assert.assertEquals(Integer.valueOf(1), counts.get("cherry"));
+        Assert.assertEquals(5, counts.size());
+
+        Map<Character, Map<Integer, List<String>>> nested = ListUtil.groupBy2(words, w -> w.charAt(0), String::length);
+        Assert.assertEquals(Arrays.asList("apple", "apple"), nested.get('a').get(5));
+        Assert.assertEquals(Collections.singletonList("blueberry"), nested.get('b').get(9));
+        Assert.assertEquals(words.stream().collect(Collectors.groupingBy(w -> w.charAt(0), Collectors.groupingBy(String::length))),
+                nested);
+
+        LinkedHashMap<Character, List<String>> ordered = ListUtil.groupBy(words, w -> w.charAt(0), MapUtil::newLinkedHashMap);
+        Assert.assertEquals(Arrays.asList('a', 'b', 'c'), new ArrayList<>(ordered.keySet()));
+        EnumMap<TimeUnit, Integer> byUnit = ListUtil.countBy(Arrays.asList(TimeUnit.SECONDS, TimeUnit.DAYS, TimeUnit.SECONDS),
+                u -> u, n -> MapUtil.newEnumMap(TimeUnit.class));
+        Assert.assertEquals(Integer.valueOf(2), byUnit.get(TimeUnit.SECONDS));
+        // 校验值类型的Map中只会放入Integer
+        Map<String, Integer> checked = ListUtil.countBy(words, w -> w,
+                n -> Collections.checkedMap(new LinkedHashMap<String, Integer>(), String.class, Integer.class));
+        Assert.assertEquals(counts, checked);
+        Assert.assertEquals(words.stream().distinct().collect(Collectors.toList()), new ArrayList<>(checked.keySet()));
+        String key = new String("k");
+        IdentityHashMap<String, String> identity = ListUtil.toMap(Arrays.asList(key, "k"), w -> w, w -> w, MapUtil::newIdentityHashMap);
+        Assert.assertEquals(2, identity.size());
+        IdentityHashMap<String, Integer> identityCounts = ListUtil.countBy(Arrays.asList(key, "k", key), w -> w,
+                MapUtil::newIdentityHashMap);
+        Assert.assertEquals(2, identityCounts.size());
+        Assert.assertEquals(Integer.valueOf(2), identityCounts.get(key));
+        Assert.assertEquals(Integer.valueOf(1), identityCounts.get("k"));
+        try {
+            ListUtil.countBy(words, w -> w, null);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+            // 必须指定mapFactory
+        }
+
+        Assert.assertTrue(ListUtil.groupBy(null, w -> w).isEmpty());
+        Assert.assertTrue(ListUtil.countBy(Collections.<String>emptyList(), w -> w).isEmpty());
+    }
+
+    private static List<Integer> randomList(Random random, int size) {
+        List<Integer> r = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            r.add(random.nextInt(200));
+        }
+        return r;
+    }
+
+    private static <T> List<T> naiveIntersection(List<T> t1, List<T> t2) {
+        List<T> result = new ArrayList<>();
+        for (T c : t1) {
+            if (t2.contains(c) && !result.contains(c)) result.add(c);
+        }
+        return result;
+    }
+
+    private static <T> List<T> naiveDifference(List<T> t1, List<T> t2) {
+        List<T> result = new ArrayList<>();
+        for (T o1 : t1) {
+            if (!t2.contains(o1) && !result.contains(o1)) result.add(o1);
+        }
+        for (T o2 : t2) {
+            if (!t1.contains(o2) && !result.contains(o2)) result.add(o2);
+        }
+        return result;
+    }
+
+    private static <T> List<T> naiveDeDuplicate(List<T> source) {
+        List<T> result = new ArrayList<>();
+        for (T s : source) {
+            if (!result.contains(s)) result.add(s);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.NumberUtil;
+import com.lingdol.common.util.StringUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class NumberUtilTest {
+
+    private static final List<String> SAMPLES = Arrays.asList("", " ", "0", "-0", "+0", "-", "+", "1", "-1", "+12",
+            "007", "2147483647", "2147483648", "-2147483648", "-2147483649", "9223372036854775807",
+            "9223372036854775808", "-9223372036854775808", "-9223372036854775809", "１２３", "12a", "a12", " 12",
+            "12 ", "1.", ".5", ".", "-.5e3", "1e", "1e+", "1e-5", "1E22", "1e23", "1e308", "1e309", "4.9e-324",
+            "1e-400", "0.1", "123.456", "3.141592653589793", "0.30000000000000004", "1.7976931348623157e308",
+            "123456789012345678901234567890", "0.000000000000000000000123", "1f", "1.5D", "1.5x", "1ff", "NaN",
+            "-Infinity", "Infinityf", "NaNd", "nan", "0x1p3", "0x1.8P-1f", "0x1", "0x", "0xp1", "\t2.5\n", "1..2",
+            "1.2.3", "e5", "12.340", "-0.01", "99999999999999999.99");
+
+    @Test
+    public void parseTest() {
+        List<String> inputs = new ArrayList<>(SAMPLES);
+        Random random = new Random(5);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = random.nextInt(22); j > 0; j--) {
+                sb.append("0123456789.-+eE".charAt(random.nextInt(random.nextBoolean() ? 10 : 15)));
+            }
+            inputs.add(sb.toString());
+            inputs.add(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(60) - 30)));
+            inputs.add(Long.toString(random.nextLong() >> random.nextInt(64)));
+        }
+        for (String s : inputs) {
+            Double d = null;
+            try {
+                d = Double.parseDouble(s);
+            } catch (NumberFormatException ignored) {
+            }
+            Assert.assertEquals(s, d != null, StringUtil.isNumber(s));
+            if (d != null) {
+                Assert.assertEquals(s, Double.doubleToLongBits(d), Double.doubleToLongBits(NumberUtil.tryParseDouble(s, -1)));
+                Assert.assertTrue(s, NumberUtil.tryParseDouble(s).isPresent());
+            } else {
+                Assert.assertFalse(s, NumberUtil.tryParseDouble(s).isPresent());
+            }
+
+            Integer n = null;
+            try {
+                n = Integer.parseInt(s);
+            } catch (NumberFormatException ignored) {
+            }
+            Assert.assertEquals(s, n != null, StringUtil.isInteger(s));
+            Assert.assertEquals(s, n == null ? -7 : n, NumberUtil.tryParseInt(s, -7));
+
+            Long l = null;
+            try {
+                l = Long.parseLong(s);
+            } catch (NumberFormatException ignored) {
+            }
+            Assert.assertEquals(s, l == null ? -7 : l, NumberUtil.tryParseLong(s, -7));
+            Assert.assertEquals(s, l != null, NumberUtil.tryParseLong(s).isPresent());
+
+            BigDecimal b = null;
+            try {
+                b = new BigDecimal(s);
+            } catch (NumberFormatException ignored) {
+            }
+            // parseDecimal只识别ASCII数字
+            if (s.chars().allMatch(c -> c < 128)) Assert.assertEquals(s, b, NumberUtil.parseDecimal(s));
+        }
+        Assert.assertFalse(StringUtil.isNumber(null));
+        Assert.assertFalse(StringUtil.isInteger(null));
+    }
+
+    @Test
+    public void rangeTest() {
+        char[] cs = "id=12345;price=-12.5;".toCharArray();
+        Assert.assertEquals(12345, NumberUtil.tryParseInt(cs, 3, 8, -1));
+        Assert.assertEquals(-12.5, NumberUtil.tryParseDouble(cs, 15, 20, 0), 0);
+        Assert.assertEquals(-1250, NumberUtil.parseUnscaled(cs, 15, 20, 2, 0));
+        Assert.assertEquals(-1, NumberUtil.tryParseInt(cs, 3, 30, -1));
+        Assert.assertEquals(123L, NumberUtil.tryParseLong(new StringBuilder("x123"), 1, 4, -1));
+
+        Assert.assertEquals(1230, NumberUtil.parseUnscaled("12.3", 2, -1));
+        Assert.assertEquals(1234, NumberUtil.parseUnscaled("12.340", 2, -1));
+        Assert.assertEquals(-1, NumberUtil.parseUnscaled("12.345", 2, -1));
+        Assert.assertEquals(-1, NumberUtil.parseUnscaled("1e3", 2, -1));
+        Assert.assertEquals(Long.MIN_VALUE, NumberUtil.parseUnscaled("-9223372036854775808", 0, -1));
+        Assert.assertEquals(-1, NumberUtil.parseUnscaled("9223372036854775808", 0, -1));
+        Assert.assertEquals(-1, NumberUtil.parseUnscaled("92233720368547758.08", 3, -1));
+        Assert.assertEquals(new BigDecimal("-12.50"), NumberUtil.parseDecimal(cs, 15, 20).setScale(2));
+    }
+}
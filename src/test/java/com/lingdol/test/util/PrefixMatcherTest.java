@@ -0,0 +1,76 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.PrefixMatcher;
+import com.lingdol.common.util.StringUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PrefixMatcherTest {
+
+    @Test
+    public void matchTest() {
+        Map<String, Integer> routes = new HashMap<>();
+        routes.put("/api", 1);
+        routes.put("/api/order", 2);
+        routes.put("/api/order/item", 3);
+        routes.put("/static", 4);
+        PrefixMatcher<Integer> matcher = PrefixMatcher.of(routes);
+        Assert.assertEquals(Integer.valueOf(2), matcher.longestMatch("/api/order/1"));
+        Assert.assertEquals("/api/order", matcher.longestMatchKey("/api/order/1"));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), matcher.allMatches("/api/order/item/9"));
+        Assert.assertNull(matcher.longestMatch("/ap"));
+        Assert.assertFalse(matcher.matches("/admin"));
+        Assert.assertTrue(StringUtil.startWith("/static/a.js", matcher));
+        Assert.assertFalse(StringUtil.startWith("", matcher));
+
+        PrefixMatcher<String> suffixes = PrefixMatcher.suffixes(Arrays.asList(".jpg", ".png", "-thumb.png"));
+        Assert.assertEquals("-thumb.png", suffixes.longestMatch("a-thumb.png"));
+        Assert.assertEquals(Arrays.asList(".png", "-thumb.png"), suffixes.allMatchKeys("a-thumb.png"));
+        Assert.assertTrue(StringUtil.endWith("b.jpg", suffixes));
+        Assert.assertFalse(StringUtil.endWith("b.gif", suffixes));
+        Assert.assertTrue(PrefixMatcher.of(Arrays.asList("", "x")).matches("abc"));
+    }
+
+    @Test
+    public void randomTest() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            List<String> keys = new ArrayList<>();
+            for (int i = random.nextInt(40) + 1; i > 0; i--) {
+                keys.add(randomText(random, random.nextInt(5) + 1));
+            }
+            PrefixMatcher<String> prefixes = PrefixMatcher.of(keys);
+            PrefixMatcher<String> suffixes = PrefixMatcher.suffixes(keys);
+            for (int t = 0; t < 20; t++) {
+                String text = randomText(random, random.nextInt(8));
+                String longestPrefix = null;
+                String longestSuffix = null;
+                for (String key : keys) {
+                    if (text.startsWith(key) && (longestPrefix == null || key.length() > longestPrefix.length())) longestPrefix = key;
+                    if (text.endsWith(key) && (longestSuffix == null || key.length() > longestSuffix.length())) longestSuffix = key;
+                }
+                Assert.assertEquals(longestPrefix, prefixes.longestMatch(text));
+                Assert.assertEquals(longestSuffix, suffixes.longestMatch(text));
+                Assert.assertEquals(longestPrefix != null, prefixes.matches(text));
+                for (String key : prefixes.allMatches(text)) {
+                    Assert.assertTrue(text.startsWith(key));
+                }
+            }
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        char[] cs = new char[length];
+        for (int i = 0; i < length; i++) {
+            cs[i] = "ab/中".charAt(random.nextInt(4));
+        }
+        return new String(cs);
+    }
+}
@@ -1,8 +1,22 @@
 package com.lingdol.test.util;
 
+import com.lingdol.common.util.Joiner;
+import com.lingdol.common.util.ListUtil;
+import com.lingdol.common.util.Splitter;
 import com.lingdol.common.util.StringUtil;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
 public class StringUtilTest {
 
     @Test
@@ -11,4 +25,118 @@ public class StringUtilTest {
         System.out.println(StringUtil.rightPad("2", 5, '0'));
     }
 
+    @Test
+    public void joinTest() throws Exception {
+        for (List<String> es : Arrays.<List<String>>asList(Arrays.asList("a", "b", "c"), Arrays.asList("a", null, "b"),
+                Arrays.asList(null, "a", "b"), Arrays.asList(null, null), Arrays.asList(null, ""),
+                Arrays.asList("a", ""), Collections.singletonList("x"))) {
+            Assert.assertEquals(StringUtil.join(",", es.toArray()), StringUtil.join(",", es));
+            Assert.assertEquals(legacyListJoin(es, "--"), ListUtil.join(es, "--"));
+        }
+        Assert.assertEquals("", StringUtil.join(",", Collections.<String>emptyList()));
+
+        List<Object> parts = Arrays.asList(1, null, "中文", "😀");
+        Joiner joiner = Joiner.on(", ").withPrefix("(").withSuffix(")");
+        Assert.assertEquals("(1, null, 中文, 😀)", joiner.join(parts));
+        Assert.assertEquals("(1, 中文, 😀)", joiner.skipNulls().join(parts));
+        Assert.assertEquals("(1, NULL, 中文, 😀)", joiner.useForNull("NULL").join(parts));
+        Assert.assertEquals("()", joiner.join());
+        Assert.assertEquals("a|b", Joiner.on('|').join("a", "b"));
+
+        List<String> strings = Arrays.asList("x", "yy", null, "zzz");
+        Assert.assertEquals(Joiner.on(",").join(strings).length(), Joiner.on(",").length(strings));
+
+        StringWriter writer = new StringWriter();
+        joiner.appendTo(writer, parts);
+        Assert.assertEquals(joiner.join(parts), writer.toString());
+
+        String s = joiner.join(parts) + "\ud800";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long n = joiner.withSuffix(")\ud800").writeUtf8(out, parts);
+        Assert.assertArrayEquals(s.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        Assert.assertEquals(out.size(), n);
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        joiner.writeUtf8(buffer, parts);
+        Assert.assertEquals(joiner.join(parts), new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void splitTest() {
+        String[] separators = {",", ", ", "ab", "|", "\\|", "\\.", ".", "", "\\s+", "a*", "[,;]", "x?", "\\d"};
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; j--) {
+                sb.append("ab,; |.1x".charAt(random.nextInt(9)));
+            }
+            String original = sb.toString();
+            for (String separator : separators) {
+                List<String> expected = original.isEmpty() ? Collections.<String>emptyList() : Arrays.asList(original.split(separator));
+                Assert.assertEquals(original + " / " + separator, expected, StringUtil.split(original, separator));
+            }
+            if (original.isEmpty()) continue;
+            Assert.assertArrayEquals(legacySplitStr(original, ";", "|", "ab"), StringUtil.splitStr(original, ";", "|", "ab"));
+        }
+        Assert.assertNull(StringUtil.split(null, ","));
+        Assert.assertEquals(Collections.singletonList("a,b"), StringUtil.split("a,b", null));
+
+        Assert.assertEquals(Arrays.asList("a", "b", "", "c", ""), Splitter.on(',').splitToList("a,b,,c,"));
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), Splitter.on(",").trimResults().omitEmptyStrings().splitToList(" a, b,, c , "));
+        Assert.assertEquals(Arrays.asList("a", "b", "c::d"), Splitter.on("::").limit(3).splitToList("a::b::c::d"));
+        Assert.assertEquals(Arrays.asList("1", "2", "3"), Splitter.onPattern("\\s*;\\s*").splitToList("1 ; 2;3"));
+
+        StringBuilder line = new StringBuilder("k1=v1&k2=v2&k3=");
+        List<String> keys = new ArrayList<>();
+        for (CharSequence part : Splitter.on('&').split(line)) {
+            Assert.assertFalse(part instanceof String);
+            keys.add(part.subSequence(0, 2).toString());
+        }
+        Assert.assertEquals(Arrays.asList("k1", "k2", "k3"), keys);
+    }
+
+    private static String[] legacySplitStr(String str, String... delimiter) {
+        for (String s : delimiter) {
+            String[] result = str.split(s);
+            if (result.length > 1) return result;
+        }
+        return new String[]{str};
+    }
+
+    private static String legacyListJoin(List<String> list, String joiner) {
+        StringBuilder sb = new StringBuilder();
+        for (String li : list) {
+            if (li == null) continue;
+            sb.append(li).append(joiner);
+        }
+        String s = sb.toString();
+        if (!s.isEmpty() && s.endsWith(joiner)) s = s.substring(0, s.length() - joiner.length());
+        return s;
+    }
+
+
+    @Test
+    public void blankTest() {
+        for (String s : Arrays.asList("", " ", "\t\n", "a", " a", "a ", " a b ", "\u3000a\u3000", "\u00a0", "x\u0000")) {
+            String trimmed = s.trim();
+            Assert.assertEquals(s, trimmed.isEmpty(), StringUtil.isBlank(s));
+            Assert.assertEquals(s, trimmed.isEmpty(), StringUtil.isBlank(new StringBuilder(s)));
+            Assert.assertEquals(s, trimmed.isEmpty() ? null : trimmed, StringUtil.trimToNull(s));
+            Assert.assertEquals(s, trimmed, StringUtil.trim(s));
+            Assert.assertEquals(s, trimmed.isEmpty() ? null : s, StringUtil.blankToNull(s));
+        }
+        String s = "abc";
+        Assert.assertSame(s, StringUtil.trim(s));
+        Assert.assertSame(s, StringUtil.trimToNull(s));
+        Assert.assertSame(s, StringUtil.trim(s, true));
+        Assert.assertEquals("", StringUtil.trim((String) null));
+        Assert.assertTrue(StringUtil.isBlank((String) null));
+
+        Assert.assertFalse(StringUtil.isBlank("\u3000\u00a0"));
+        Assert.assertTrue(StringUtil.isBlank("\u3000\u00a0\ufeff ", true));
+        Assert.assertEquals("中文", StringUtil.trimToNull("\u3000中文\u00a0", true));
+        Assert.assertNull(StringUtil.blankToNull("\u3000", true));
+        Assert.assertEquals("ab", StringUtil.trim(new StringBuilder(" ab\u3000"), true).toString());
+        Assert.assertEquals("b", StringUtil.one(null, " ", "\t", "b", "c"));
+    }
 }
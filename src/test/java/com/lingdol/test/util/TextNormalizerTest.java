@@ -0,0 +1,70 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.TextNormalizer;
+import com.lingdol.common.util.Utf8Util;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TextNormalizerTest {
+
+    @Test
+    public void normalizeTest() {
+        TextNormalizer normalizer = TextNormalizer.create().foldWidth().lowerCase().collapseWhitespace().trim()
+                .removeControlChars().removeFourByteChars();
+        Assert.assertEquals("abc(新款) 手机", normalizer.normalize("　ＡＢＣ（新款）  手机 "));
+        Assert.assertEquals("a b", normalizer.normalize("a \u0000😀\t b\uFEFF"));
+        Assert.assertEquals("?x", normalizer.normalize("\uD800x"));
+        Assert.assertEquals("", normalizer.normalize(" \t "));
+        Assert.assertNull(normalizer.normalize((String) null));
+        String plain = "abc 手机";
+        Assert.assertSame(plain, normalizer.normalize(plain));
+        Assert.assertEquals("abc", normalizer.normalize("abc  "));
+
+        TextNormalizer trimOnly = TextNormalizer.create().trim();
+        Assert.assertEquals("a \t　b", trimOnly.normalize("　 a \t　b\n"));
+        Assert.assertEquals("a  b", TextNormalizer.create().foldWidth().normalize("a　 b"));
+        Assert.assertEquals(" a ", TextNormalizer.create().collapseWhitespace().normalize("\n\n a \r\n"));
+        Assert.assertSame(plain, TextNormalizer.create().normalize(plain));
+    }
+
+    @Test
+    public void randomTest() {
+        TextNormalizer normalizer = TextNormalizer.create().foldWidth().lowerCase().collapseWhitespace().trim()
+                .removeControlChars().removeFourByteChars();
+        Random random = new Random(13);
+        String alphabet = "aZ中 \t　Ａ（\u0001😀";
+        List<String> inputs = new ArrayList<>();
+        for (int round = 0; round < 20000; round++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = random.nextInt(16); i > 0; i--) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String s = sb.toString();
+            inputs.add(s);
+            Assert.assertEquals(s, legacyNormalize(s), normalizer.normalize(s));
+        }
+        List<String> expected = normalizer.normalize(inputs);
+        Assert.assertEquals(expected, normalizer.parallelNormalize(inputs));
+        Assert.assertEquals(Arrays.asList("a", null), normalizer.parallelNormalize(Arrays.asList(" A ", null)));
+    }
+
+    /**
+     * 逐步替换的写法，每步复制一次
+     */
+    private static String legacyNormalize(String s) {
+        s = Utf8Util.stripFourByteChars(s);
+        StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (Character.isISOControl(c) && !Character.isWhitespace(c)) continue;
+            if (c >= '！' && c <= '～') c = (char) (c - 0xFEE0);
+            if (c == '　') c = ' ';
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString().replaceAll("\\s+", " ").trim();
+    }
+}
@@ -0,0 +1,60 @@
+package com.lingdol.test.util;
+
+import com.lingdol.common.util.StringUtil;
+import com.lingdol.common.util.Utf8Util;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class Utf8UtilTest {
+
+    @Test
+    public void utf8Test() {
+        Random random = new Random(9);
+        String alphabet = "aé中😀👍𐀀x";
+        for (int round = 0; round < 5000; round++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = random.nextInt(20); i > 0; i--) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String s = sb.toString();
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            Assert.assertEquals(bytes.length, Utf8Util.utf8Length(s));
+
+            boolean fourBytes = false;
+            for (byte b : bytes) {
+                fourBytes |= (b & 0xF8) == 0xF0;
+            }
+            Assert.assertEquals(fourBytes, StringUtil.containsFourBytesChar(s));
+
+            int max = random.nextInt(bytes.length + 2);
+            String truncated = Utf8Util.truncateToUtf8Bytes(s, max);
+            Assert.assertTrue(s.startsWith(truncated));
+            Assert.assertTrue(Utf8Util.utf8Length(truncated) <= max);
+            if (truncated.length() < s.length()) {
+                int next = Character.isHighSurrogate(s.charAt(truncated.length())) && truncated.length() + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(truncated.length() + 1)) ? 2 : 1;
+                Assert.assertTrue(Utf8Util.utf8Length(s.substring(0, truncated.length() + next)) > max);
+            }
+
+            String stripped = Utf8Util.stripFourByteChars(s);
+            Assert.assertFalse(Utf8Util.containsFourByteChar(stripped));
+            Assert.assertEquals(new String(s.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8)
+                    .replaceAll("[\\x{10000}-\\x{10FFFF}]", "*"), new String(Utf8Util.replaceFourByteChars(s, "*")
+                    .getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+        }
+
+        String plain = "普通文本";
+        Assert.assertSame(plain, Utf8Util.stripFourByteChars(plain));
+        Assert.assertSame(plain, Utf8Util.truncateToUtf8Bytes(plain, 12));
+        Assert.assertEquals("普通", Utf8Util.truncateToUtf8Bytes(plain, 8));
+        Assert.assertEquals("a", Utf8Util.truncateToUtf8Bytes("a😀", 4));
+        List<String> list = Utf8Util.stripFourByteChars(Arrays.asList("好😀", plain, null));
+        Assert.assertEquals(Arrays.asList("好", plain, null), list);
+        Assert.assertSame(plain, list.get(1));
+    }
+}